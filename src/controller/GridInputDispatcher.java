@@ -0,0 +1,140 @@
+package controller;
+
+import java.awt.Component;
+import java.awt.Point;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * A single mouse listener for a component displaying a grid of cells, such as the game board or the pipe stock.
+ * The pointer coordinates are mapped to a cell of the grid by arithmetic, so the number of listeners and the
+ * cost of an event do not depend on the number of cells. A press on a cell may start a drag, which receives
+ * the following drag and release events until it ends.
+ *
+ * @author hamza-okutucu
+ */
+public class GridInputDispatcher extends MouseAdapter {
+
+    /**
+     * Maps a point of the grid component to a cell of the grid.
+     */
+    public interface CellLocator {
+
+        /**
+         * Gets the cell at a point of the grid component.
+         *
+         * @param point The point in the coordinates of the grid component.
+         * @return A Point whose X is the column and Y is the row of the cell, or null if there is no cell at this point.
+         */
+        Point getCellAt(Point point);
+    }
+
+    /**
+     * Handles the drags started by pressing a cell of the grid.
+     */
+    public interface DragHandler {
+
+        /**
+         * Handles a press on a cell.
+         *
+         * @param cell The cell pressed, whose X is the column and Y is the row.
+         * @param e    The mouse event.
+         * @return true if the press starts dragging the cell, otherwise false.
+         */
+        boolean dragStarted(Point cell, MouseEvent e);
+
+        /**
+         * Handles a move of the pointer while dragging a cell.
+         *
+         * @param cell The dragged cell.
+         * @param e    The mouse event.
+         */
+        void dragged(Point cell, MouseEvent e);
+
+        /**
+         * Handles the release of the pointer, which ends dragging a cell.
+         *
+         * @param cell The dragged cell.
+         * @param e    The mouse event.
+         */
+        void dropped(Point cell, MouseEvent e);
+    }
+
+    private Component component;
+    private CellLocator cellLocator;
+    private DragHandler dragHandler;
+    private Point draggedCell;
+
+    /**
+     * Constructs a new GridInputDispatcher and installs it on a grid component.
+     *
+     * @param component   The component displaying the grid.
+     * @param cellLocator The function mapping the points of the component to its cells.
+     * @param dragHandler The handler of the drags started on the grid.
+     */
+    public GridInputDispatcher(Component component, CellLocator cellLocator, DragHandler dragHandler) {
+        this.component = component;
+        this.cellLocator = cellLocator;
+        this.dragHandler = dragHandler;
+        this.draggedCell = null;
+
+        component.addMouseListener(this);
+        component.addMouseMotionListener(this);
+    }
+
+    /**
+     * Gets the cell of the grid under the pointer of a mouse event, whichever component received the event.
+     *
+     * @param e The mouse event.
+     * @return A Point whose X is the column and Y is the row of the cell, or null if the pointer is not over a cell.
+     */
+    public Point getCellAt(MouseEvent e) {
+        Point point = e.getComponent() == component ? e.getPoint() : SwingUtilities.convertPoint(e.getComponent(), e.getPoint(), component);
+
+        if (point.x < 0 || point.y < 0 || point.x >= component.getWidth() || point.y >= component.getHeight()) return null;
+
+        return cellLocator.getCellAt(point);
+    }
+
+    /**
+     * Starts dragging the pressed cell if the handler accepts it.
+     *
+     * @param e The mouse event.
+     */
+    @Override
+    public void mousePressed(MouseEvent e) {
+        Point cell = cellLocator.getCellAt(e.getPoint());
+
+        if (cell != null && dragHandler.dragStarted(cell, e)) {
+            draggedCell = cell;
+        }
+    }
+
+    /**
+     * Forwards the move of the pointer to the handler while dragging a cell.
+     *
+     * @param e The mouse event.
+     */
+    @Override
+    public void mouseDragged(MouseEvent e) {
+        if (draggedCell == null) return;
+
+        dragHandler.dragged(draggedCell, e);
+    }
+
+    /**
+     * Ends dragging a cell.
+     *
+     * @param e The mouse event.
+     */
+    @Override
+    public void mouseReleased(MouseEvent e) {
+        if (draggedCell == null) return;
+
+        Point cell = draggedCell;
+        draggedCell = null;
+        dragHandler.dropped(cell, e);
+    }
+}
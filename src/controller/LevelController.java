@@ -5,12 +5,15 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.awt.event.MouseMotionAdapter;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.MouseWheelListener;
 
 import javax.swing.JButton;
+import javax.swing.JScrollPane;
 import javax.swing.SwingUtilities;
 
 import model.BoardCell;
+import model.BoardChanges;
 import model.BoardElement;
 import model.LevelModel;
 import model.MenuModel;
@@ -18,10 +21,14 @@ import model.Pipe;
 import model.enumeration.BoardElementType;
 import model.enumeration.PathComponentColor;
 import model.enumeration.PipeType;
-import view.DraggedImage;
+import util.AssetsUtil;
+import view.BoardCanvas;
+import view.DragLayer;
 import view.ImageView;
 import view.LevelView;
+import view.Minimap;
 import view.MenuView;
+import view.TileRenderer;
 
 /**
  * The controller for the game level, responsible for managing interactions
@@ -31,10 +38,15 @@ import view.MenuView;
  */
 public class LevelController {
 
+	/**
+	 * The zoom factor applied to the game board by one notch of the mouse wheel.
+	 */
+	private static final double ZOOM_STEP = 1.1;
+
 	private LevelModel model;
 	private LevelView view;
-	private ImageView selectedImageView;
-	private DraggedImage dragImage;
+	private GridInputDispatcher pipeStockDispatcher;
+	private GridInputDispatcher gameBoardDispatcher;
 	
     /**
      * Initializes a new level controller with the associated model and view.
@@ -45,12 +57,11 @@ public class LevelController {
 	public LevelController(LevelModel model, LevelView view) {
 		this.model = model;
 		this.view = view;
-		selectedImageView = null;
-		dragImage = null;
 		
 		addActionListenersToButtons();
         addMouseListenerToPipeStock();
         addMouseListenerToGameBoard();
+        addMouseListenerToMinimap();
 	}
 	
     /**
@@ -66,24 +77,24 @@ public class LevelController {
         undoButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                model.performUndo();
-                view.refresh();
+                BoardChanges changes = model.performUndo();
+                view.refresh(changes);
             }
         });
 
         redoButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                model.performRedo();
-                view.refresh();
+                BoardChanges changes = model.performRedo();
+                view.refresh(changes);
             }
         });
 
         resetButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                model.resetLevel();
-                view.refresh();
+                BoardChanges changes = model.resetLevel();
+                view.refresh(changes);
             }
         });
 
@@ -99,102 +110,73 @@ public class LevelController {
     }
     
     /**
-     * Adds mouse listeners to pipe stock elements in the view. These listeners handle
+     * Adds a mouse listener to the pipe stock in the view. This listener handles
      * drag-and-drop of pipes into the game.
      */
     private void addMouseListenerToPipeStock() {
-        ImageView[][] components = view.getPipeStockImageViews();
+        ImageView[][] imageViews = view.getPipeStockImageViews();
         
-        for (ImageView[] imageViews : components) {
-        	for (ImageView imageView : imageViews) {
-        		
-                imageView.addMouseListener(new MouseAdapter() {
-                	
-                    @Override
-                    public void mousePressed(MouseEvent e) {
-                    	if (imageView.isMoveable()) return;
-                    	
-                    	selectedImageView = imageView;
-                		
-                        BoardCell boardCell = (BoardCell)selectedImageView.getElement();
-                        Pipe pipe = boardCell.getPipe();
-                        
-                        int x = e.getXOnScreen();
-                        int y = e.getYOnScreen();
-                        
-                		dragImage = new DraggedImage(pipe.getImage(), new Point(x, y));
-                		dragImage.setLocation(x - dragImage.getWidth() / 2, y - dragImage.getHeight() / 2);
-                    }
-                    
-                    @Override
-                    public void mouseReleased(MouseEvent e) {
-                    	if (selectedImageView == null) return;
-                    	
-                    	Point clickedBoardPos = getClickedBoardPos(e.getXOnScreen(), e.getYOnScreen());
-                    	
-                        if (clickedBoardPos != null) {
-                            BoardCell boardCell = (BoardCell) selectedImageView.getElement();
-                            int clickedRow = (int) clickedBoardPos.getY();
-                            int clickedCol = (int) clickedBoardPos.getX();
-                            BoardCell clickedCell = (BoardCell) model.getElement(clickedRow, clickedCol);
-
-                            if (clickedCell.isEmpty()) {
-                                model.setElement(clickedRow, clickedCol, boardCell);
-                                model.getStock().removePipe(boardCell.getPipe().getType(), boardCell.getPipe().getRotations());
-                                view.refresh();
-                            } else {
-                                dragImage.translateToOriginLocation();
-                            }
-                        } else {
-                            dragImage.translateToOriginLocation();
-                        }
-                    	
-                		selectedImageView = null;
-                		dragImage.dispose();
-                		dragImage = null;
-                    }
-                });
+        pipeStockDispatcher = new GridInputDispatcher(view.getStockPanel(), view::getStockCellAt, new GridInputDispatcher.DragHandler() {
+        	
+            @Override
+            public boolean dragStarted(Point cell, MouseEvent e) {
+            	ImageView imageView = imageViews[cell.y][cell.x];
+            	
+            	if (imageView.isMoveable()) return false;
+            	
+                BoardCell boardCell = (BoardCell) imageView.getElement();
+                Pipe pipe = boardCell.getPipe();
                 
-                imageView.addMouseMotionListener(new MouseMotionAdapter() {
-                    @Override
-                    public void mouseDragged(MouseEvent e) {
-                    	if (selectedImageView == null) return;
-                    	
-                    	dragImage.setLocation(e.getXOnScreen() - dragImage.getWidth() / 2, e.getYOnScreen() - dragImage.getHeight() / 2);
-                        dragImage.repaint();
+                startDrag(pipe, e);
+                return true;
+            }
+            
+            @Override
+            public void dragged(Point cell, MouseEvent e) {
+            	dragTo(e);
+            }
+            
+            @Override
+            public void dropped(Point cell, MouseEvent e) {
+            	Point clickedBoardPos = getClickedBoardPos(e);
+            	
+                if (clickedBoardPos != null) {
+                    BoardCell boardCell = (BoardCell) imageViews[cell.y][cell.x].getElement();
+                    int clickedRow = (int) clickedBoardPos.getY();
+                    int clickedCol = (int) clickedBoardPos.getX();
+                    BoardCell clickedCell = (BoardCell) model.getElement(clickedRow, clickedCol);
+
+                    if (clickedCell.isEmpty()) {
+                        BoardChanges changes = model.setElement(clickedRow, clickedCol, boardCell.deepCopy());
+                        model.getStock().removePipe(boardCell.getPipe().getType(), boardCell.getPipe().getRotations());
+                        view.refresh(changes);
+                        view.getDragLayer().endDrag();
+                    } else {
+                        view.getDragLayer().returnToOrigin();
                     }
-                });
-        	}
-        }
+                } else {
+                    view.getDragLayer().returnToOrigin();
+                }
+            }
+        });
     }
     
     /**
-     * Gets the board position coordinates from the provided screen coordinates.
+     * Gets the board position under the pointer of a mouse event.
      *
-     * @param x The X coordinate on the screen.
-     * @param y The Y coordinate on the screen.
+     * @param e The mouse event, whichever component received it.
      * @return A Point object representing the coordinates on the game board,
-     *         or null if the coordinates do not correspond to a valid position.
+     *         or null if the pointer is not over a valid position.
      */
-    private Point getClickedBoardPos(int x, int y) {
-    	Point pointOnBoard = new Point(x, y);
-    	SwingUtilities.convertPointFromScreen(pointOnBoard, view.getBoardPanel());
-
-        int boardWidth = view.getBoardPanel().getWidth();
-        int boardHeight = view.getBoardPanel().getHeight();
-        
-        if (pointOnBoard.getX() < 0 || pointOnBoard.getY() < 0 ||
-        		pointOnBoard.getX() >= boardWidth || pointOnBoard.getY() >= boardHeight) {
-            return null;
-        }
-        
-        int col = (int) (pointOnBoard.getX() / view.getGameBoardImageViews()[0][0].getWidth());
-        int row = (int) (pointOnBoard.getY() / view.getGameBoardImageViews()[0][0].getHeight());
+    private Point getClickedBoardPos(MouseEvent e) {
+        Point cellPos = gameBoardDispatcher.getCellAt(e);
         
-        if (row >= model.getHeight() || col >= model.getWidth()) {
+        if (cellPos == null) {
         	return null;
         }
         
+        int row = cellPos.y;
+        int col = cellPos.x;
         
         BoardElement boardElement = model.getElement(row, col);
         
@@ -208,105 +190,150 @@ public class LevelController {
     }
     
     /**
-     * Adds mouse listeners to game board cells. These listeners handle interactions
+     * Adds a mouse listener to the game board. This listener handles interactions
      * with game cells, including dragging and dropping pipes and swapping pipes.
+     * Only the visible part of the board can be pressed or dropped on.
      */
     private void addMouseListenerToGameBoard() {
-        ImageView[][] components = view.getGameBoardImageViews();
+        BoardCanvas boardCanvas = view.getBoardPanel();
+        GridInputDispatcher.CellLocator cellLocator = point -> boardCanvas.getVisibleRect().contains(point) ? boardCanvas.getCellAt(point) : null;
         
-        for (int row = 0; row < components.length; row++) {
-            for (int col = 0; col < components[row].length; col++) {
-            	final int finalRow = row;
-            	final int finalCol = col;
-            	
-            	ImageView imageView = components[row][col];
-            	
-                imageView.addMouseListener(new MouseAdapter() {
-                	
-                    @Override
-                    public void mousePressed(MouseEvent e) {
-                    	if (imageView.isMoveable()) return;
-                        
-                    	selectedImageView = imageView;
-                    	
-                        BoardCell boardCell = (BoardCell)selectedImageView.getElement();
-                        
-                        Pipe pipe = boardCell.getPipe();
-                        
-                        int x = e.getXOnScreen();
-                        int y = e.getYOnScreen();
-                        
-                		dragImage = new DraggedImage(pipe.getImage(), new Point(x, y));
-                		dragImage.setLocation(x - dragImage.getWidth() / 2, y - dragImage.getHeight() / 2);
-                    }
-
-                    @Override
-                    public void mouseReleased(MouseEvent e) {
-                        if (selectedImageView == null) return;
-                        
-                        int x = e.getXOnScreen();
-                        int y = e.getYOnScreen();
-                        
-                        if (isClickedOnPipeStock(x, y)) {
-                        	BoardCell clickedCell = (BoardCell) model.getElement(finalRow, finalCol);
-                        	
-                        	if (!clickedCell.isEmpty()) {
-                        		BoardCell emptyCell = new BoardCell(PipeType.EMPTY, PathComponentColor.GRAY, 0, false);
-                        		Pipe clickedPipe = clickedCell.getPipe();
-                        		
-                        		model.setElement(finalRow, finalCol, emptyCell);
-                        		model.getStock().addPipe(clickedPipe.getType(), clickedPipe.getRotations());
-                        		view.refresh();
-                        	}
-                        } else {
-                        	Point clickedBoardPos = getClickedBoardPos(x, y);
-                        	
-                        	if (clickedBoardPos != null) {
-                            	model.switchElements(finalRow, finalCol, (int)clickedBoardPos.getY(), (int)clickedBoardPos.getX());
-                            	view.refresh();
-                        	} else {
-                        		dragImage.translateToOriginLocation();
-                        	}
-                        }
-                        
-                		selectedImageView = null;
-                		dragImage.dispose();
-                		dragImage = null;
-                    }
-                });
+        gameBoardDispatcher = new GridInputDispatcher(boardCanvas, cellLocator, new GridInputDispatcher.DragHandler() {
+        	
+            @Override
+            public boolean dragStarted(Point cell, MouseEvent e) {
+                if (!isDraggable(model.getElement(cell.y, cell.x))) return false;
+                
+                BoardCell boardCell = (BoardCell) model.getElement(cell.y, cell.x);
+                
+                Pipe pipe = boardCell.getPipe();
+                
+                startDrag(pipe, e);
+                return true;
+            }
 
-                imageView.addMouseMotionListener(new MouseMotionAdapter() {
-                    @Override
-                    public void mouseDragged(MouseEvent e) {
-                        if (selectedImageView == null) return;
+            @Override
+            public void dragged(Point cell, MouseEvent e) {
+                dragTo(e);
+            }
 
-                        dragImage.setLocation(e.getXOnScreen() - dragImage.getWidth() / 2, e.getYOnScreen() - dragImage.getHeight() / 2);
-                        dragImage.repaint();
-                    }
-                });
+            @Override
+            public void dropped(Point cell, MouseEvent e) {
+                int selectedRow = cell.y;
+                int selectedCol = cell.x;
+                
+                Point clickedBoardPos = getClickedBoardPos(e);
+                
+                if (pipeStockDispatcher.getCellAt(e) != null) {
+                	BoardCell clickedCell = (BoardCell) model.getElement(selectedRow, selectedCol);
+                	
+                	if (!clickedCell.isEmpty()) {
+                		BoardCell emptyCell = new BoardCell(PipeType.EMPTY, PathComponentColor.GRAY, 0, false);
+                		Pipe clickedPipe = clickedCell.getPipe().deepCopy();
+                		
+                		BoardChanges changes = model.setElement(selectedRow, selectedCol, emptyCell);
+                		model.getStock().addPipe(clickedPipe.getType(), clickedPipe.getRotations());
+                		view.refresh(changes);
+                	}
+                	view.getDragLayer().endDrag();
+                } else if (clickedBoardPos != null) {
+                	BoardChanges changes = model.switchElements(selectedRow, selectedCol, (int)clickedBoardPos.getY(), (int)clickedBoardPos.getX());
+                	view.refresh(changes);
+                	view.getDragLayer().endDrag();
+                } else {
+                	view.getDragLayer().returnToOrigin();
+                }
             }
-        }
+        });
+        
+        boardCanvas.addMouseWheelListener(new MouseWheelListener() {
+        	
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                if (e.isControlDown()) {
+                	if (e.getWheelRotation() != 0) {
+                		boardCanvas.zoom(Math.pow(ZOOM_STEP, -e.getWheelRotation()), e.getPoint());
+                	}
+                } else {
+                	JScrollPane scrollPane = view.getBoardScrollPane();
+                	scrollPane.dispatchEvent(SwingUtilities.convertMouseEvent(boardCanvas, e, scrollPane));
+                }
+            }
+        });
+    }
+    
+    /**
+     * Adds a mouse listener to the minimap, if the view has one. Pressing or dragging on the minimap
+     * scrolls the game board so that the pointed cell is at the center of its viewport.
+     */
+    private void addMouseListenerToMinimap() {
+        Minimap minimap = view.getMinimap();
+        if (minimap == null) return;
+        
+        MouseAdapter mouseAdapter = new MouseAdapter() {
+        	
+            @Override
+            public void mousePressed(MouseEvent e) {
+                scrollToMinimapPoint(minimap, e.getPoint());
+            }
+            
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                scrollToMinimapPoint(minimap, e.getPoint());
+            }
+        };
+        
+        minimap.addMouseListener(mouseAdapter);
+        minimap.addMouseMotionListener(mouseAdapter);
     }
     
     /**
-     * Checks if the given coordinates correspond to a position in the pipe stock.
+     * Centers the viewport of the game board on the cell at a point of the minimap.
      *
-     * @param x The X coordinate on the screen.
-     * @param y The Y coordinate on the screen.
-     * @return true if the coordinates are in the pipe stock, otherwise false.
+     * @param minimap The minimap of the game board.
+     * @param point   The point in the coordinates of the minimap.
      */
-    private boolean isClickedOnPipeStock(int x, int y) {
-        Point pointOnStock = new Point(x, y);
-        SwingUtilities.convertPointFromScreen(pointOnStock, view.getStockPanel());
-
-        int stockWidth = view.getStockPanel().getWidth();
-        int stockHeight = view.getStockPanel().getHeight();
-
-        if (pointOnStock.getX() < 0 || pointOnStock.getY() < 0 ||
-                pointOnStock.getX() >= stockWidth || pointOnStock.getY() >= stockHeight) {
-            return false;
-        }
-
-        return true;
+    private void scrollToMinimapPoint(Minimap minimap, Point point) {
+        Point cellPos = minimap.getCellAt(point);
+        view.getBoardPanel().scrollToCenter(cellPos.y, cellPos.x);
+    }
+    
+    /**
+     * Starts dragging the image of a pipe in the drag layer of the view, centered on the pointer.
+     *
+     * @param pipe The dragged pipe.
+     * @param e    The mouse event starting the drag.
+     */
+    private void startDrag(Pipe pipe, MouseEvent e) {
+        DragLayer dragLayer = view.getDragLayer();
+        Point location = SwingUtilities.convertPoint(e.getComponent(), e.getPoint(), dragLayer);
+        
+        dragLayer.startDrag(TileRenderer.getImage(pipe, AssetsUtil.PIPE_SIZE), location);
+    }
+    
+    /**
+     * Moves the dragged image of the drag layer of the view to the pointer.
+     *
+     * @param e The mouse event moving the drag.
+     */
+    private void dragTo(MouseEvent e) {
+        DragLayer dragLayer = view.getDragLayer();
+        
+        dragLayer.dragTo(SwingUtilities.convertPoint(e.getComponent(), e.getPoint(), dragLayer));
+    }
+    
+    /**
+     * Checks if a board element holds a pipe that can be dragged, that is a pipe which is neither a source
+     * nor attached to the board.
+     *
+     * @param element The board element to check.
+     * @return true if the pipe of the element can be dragged, otherwise false.
+     */
+    private boolean isDraggable(BoardElement element) {
+        if (!element.getBoardElementType().equals(BoardElementType.CELL)) return false;
+        
+        BoardCell cell = (BoardCell) element;
+        
+        return !cell.isSource() && !cell.isEmpty() && !cell.isAttached();
     }
 }
@@ -10,6 +10,7 @@ import javax.swing.JButton;
 import model.LevelModel;
 import model.MenuModel;
 import util.AssetsUtil;
+import view.LevelThumbnails;
 import view.LevelView;
 import view.MenuView;
 
@@ -38,6 +39,19 @@ public class MenuController {
         menuView.setMenu(menuModel.getLevelFileNames());
 
         addActionListenerOnMenuButtons();
+        requestLevelThumbnails();
+    }
+
+    /**
+     * Requests the preview of every level in the background. Each preview is displayed in the menu
+     * as soon as it is ready.
+     */
+    private void requestLevelThumbnails() {
+        for (String levelFileName : menuModel.getLevelFileNames()) {
+            File levelFile = getLevelFile(levelFileName + ".p");
+
+            LevelThumbnails.getInstance().requestThumbnail(levelFile, thumbnail -> menuView.setLevelThumbnail(levelFileName, thumbnail));
+        }
     }
 
     /**
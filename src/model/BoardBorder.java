@@ -1,19 +1,14 @@
 package model;
 
-import java.awt.Image;
-
-import model.enumeration.BoardElementType;
 import model.enumeration.BorderType;
-import util.AssetsUtil;
 
 /**
  * Represents a border element on the game board.
+ * The border is a view of a position of a board store, or of a store of its own when created outside of the board.
  *
  * @author hamza-okutucu
  */
 public class BoardBorder extends BoardElement {
-    
-    private BorderType borderType;
 
     /**
      * Initializes a new BoardBorder with the specified border type and number of rotations.
@@ -22,9 +17,8 @@ public class BoardBorder extends BoardElement {
      * @param rotations  The number of clockwise 90-degree rotations.
      */
     public BoardBorder(BorderType borderType, int rotations) {
-        super(BoardElementType.BORDER, rotations);
-        this.borderType = borderType;
-        updateImage();
+        super(new BoardStore(1, 1), 0);
+        store.setBorder(0, 0, borderType, rotations);
     }
     
     /**
@@ -33,9 +27,18 @@ public class BoardBorder extends BoardElement {
      * @param boardBorder The BoardBorder to copy.
      */
     public BoardBorder(BoardBorder boardBorder) {
-        super(boardBorder.getBoardElementType(), boardBorder.getRotations());
-        this.borderType = boardBorder.borderType;
-        updateImage();
+        super(new BoardStore(1, 1), 0);
+        store.copy(boardBorder.store, boardBorder.index, 0);
+    }
+
+    /**
+     * Initializes a new BoardBorder viewing a position of a board store.
+     *
+     * @param store The board store holding the border.
+     * @param index The index of the position of the border in the store.
+     */
+    BoardBorder(BoardStore store, int index) {
+        super(store, index);
     }
     
     /**
@@ -44,39 +47,9 @@ public class BoardBorder extends BoardElement {
      * @return The border type.
      */
     public BorderType getBorderType() {
-        return borderType;
-    }
-
-    /**
-     * Updates the image of the border based on its type and rotations.
-     */
-    @Override
-    public void updateImage() {
-        switch (borderType) {
-            case CORNER:
-                Image cornerImage = AssetsUtil.extractPipeImage(6, 3);
-                image = AssetsUtil.rotateImage(cornerImage, rotations * 90);
-                break;
-            case SIDE:
-                Image sideImage = AssetsUtil.extractPipeImage(6, 4);
-                image = AssetsUtil.rotateImage(sideImage, rotations * 90);
-                break;
-            default:
-                handleInvalidBorderType();
-        }
+        return store.getBorderType(index);
     }
 
-    /**
-     * Handles an invalid border type by throwing an exception.
-     */
-    private void handleInvalidBorderType() {
-        try {
-            throw new Exception("Le type de bordure n'existe pas : " + borderType);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
-    
     /**
      * Creates a deep copy of the BoardBorder.
      *
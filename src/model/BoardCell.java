@@ -1,21 +1,15 @@
 package model;
 
-import java.awt.Image;
-
-import model.enumeration.BoardElementType;
 import model.enumeration.PathComponentColor;
 import model.enumeration.PipeType;
-import util.AssetsUtil;
 
 /**
  * Represents a cell on the game board containing a pipe.
+ * The cell is a view of a position of a board store, or of a store of its own when created outside of the board.
  *
  * @author hamza-okutucu
  */
 public class BoardCell extends BoardElement {
-    
-    private boolean attached;
-    private Pipe pipe;
 
     /**
      * Initializes a new BoardCell with the specified pipe type, pipe color, rotations, and attachment status.
@@ -26,10 +20,8 @@ public class BoardCell extends BoardElement {
      * @param attached   Indicates if the cell is attached to the board.
      */
     public BoardCell(PipeType pipeType, PathComponentColor pipeColor, int rotations, boolean attached) {
-        super(BoardElementType.CELL, rotations);
-        pipe = new Pipe(pipeType, pipeColor, rotations);
-        this.attached = attached;
-        updateImage();
+        super(new BoardStore(1, 1), 0);
+        store.setCell(0, 0, pipeType, pipeColor, rotations, attached);
     }
     
     /**
@@ -38,10 +30,18 @@ public class BoardCell extends BoardElement {
      * @param boardCell The BoardCell to copy.
      */
     public BoardCell(BoardCell boardCell) {
-        super(boardCell.getBoardElementType(), boardCell.getRotations());
-        this.attached = boardCell.attached;
-        this.pipe = new Pipe(boardCell.pipe);
-        updateImage();
+        super(new BoardStore(1, 1), 0);
+        store.copy(boardCell.store, boardCell.index, 0);
+    }
+
+    /**
+     * Initializes a new BoardCell viewing a position of a board store.
+     *
+     * @param store The board store holding the cell.
+     * @param index The index of the position of the cell in the store.
+     */
+    BoardCell(BoardStore store, int index) {
+        super(store, index);
     }
 
     /**
@@ -50,7 +50,7 @@ public class BoardCell extends BoardElement {
      * @return true if the cell is attached, false otherwise.
      */
     public boolean isAttached() {
-        return attached;
+        return store.isAttached(index);
     }
     
     /**
@@ -59,7 +59,7 @@ public class BoardCell extends BoardElement {
      * @return true if the cell contains a source pipe, false otherwise.
      */
     public boolean isSource() {
-        return pipe.getType().equals(PipeType.SOURCE);
+        return store.getPipeType(index) == PipeType.SOURCE;
     }
 
     /**
@@ -68,62 +68,18 @@ public class BoardCell extends BoardElement {
      * @return true if the cell is empty, false otherwise.
      */
     public boolean isEmpty() {
-        return pipe.getType().equals(PipeType.EMPTY);
+        return store.getPipeType(index) == PipeType.EMPTY;
     }
 
     /**
      * Gets the pipe contained within the cell.
      *
-     * @return The pipe object.
+     * @return A view of the pipe, sharing the state of the cell.
      */
     public Pipe getPipe() {
-        return pipe;
+        return new Pipe(store, index);
     }
 
-    /**
-     * Updates the image representation of the cell based on its pipe type and attachment status.
-     */
-    @Override
-    public void updateImage() {
-    	Image emptyImage = AssetsUtil.extractPipeImage(6, 0);
-    	
-    	if (attached) {
-    		Image screwsImage = AssetsUtil.extractPipeImage(6, 5);
-    		emptyImage = AssetsUtil.combineImages(emptyImage, screwsImage);
-    	}
-    	
-        switch (pipe.getType()) {
-            case LINE:
-            case FORK:
-            case CROSS:
-            case TURN:
-            case OVER:
-                image = AssetsUtil.combineImages(emptyImage, pipe.getImage());
-                break;
-            case SOURCE:
-            	Image borderImage = AssetsUtil.extractPipeImage(6, 4);
-            	borderImage = AssetsUtil.rotateImage(borderImage, (pipe.getRotations() + 2) * 90);
-            	image = AssetsUtil.combineImages(borderImage, pipe.getImage());
-                break;
-            case EMPTY:
-                image = emptyImage;
-                break;
-            default:
-                handleInvalidPipeType();
-        }
-    }
-    
-    /**
-     * Handles an invalid pipe type by throwing an exception.
-     */
-    private void handleInvalidPipeType() {
-        try {
-            throw new Exception("Le type de tuyau n'existe pas : " + pipe.getType());
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
-    
     /**
      * Creates a deep copy of the BoardCell.
      *
@@ -0,0 +1,129 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The set of board cells whose visual state changed during an operation on the level model.
+ * Cells are kept in the order in which they changed, along with a copy of their state before the operation.
+ *
+ * @author hamza-okutucu
+ */
+public class BoardChanges {
+
+    private int width;
+    private Set<Integer> cells;
+    private Map<Integer, BoardElement> previousElements;
+
+    /**
+     * Initializes an empty set of changes for a board of the given width.
+     *
+     * @param width The width of the game board.
+     */
+    public BoardChanges(int width) {
+        this.width = width;
+        this.cells = new LinkedHashSet<>();
+        this.previousElements = new HashMap<>();
+    }
+
+    /**
+     * Records a changed cell.
+     *
+     * @param row The row index of the cell.
+     * @param col The column index of the cell.
+     */
+    public void add(int row, int col) {
+        cells.add(row * width + col);
+    }
+
+    /**
+     * Removes a cell from the changes.
+     *
+     * @param row The row index of the cell.
+     * @param col The column index of the cell.
+     */
+    public void remove(int row, int col) {
+        cells.remove(row * width + col);
+        previousElements.remove(row * width + col);
+    }
+
+    /**
+     * Records every cell of another set of changes.
+     *
+     * @param changes The changes to merge into this set.
+     */
+    public void addAll(BoardChanges changes) {
+        cells.addAll(changes.cells);
+        for (Map.Entry<Integer, BoardElement> entry : changes.previousElements.entrySet()) {
+            previousElements.putIfAbsent(entry.getKey(), entry.getValue());
+        }
+    }
+    
+    /**
+     * Records the state of a changed cell before the operation.
+     *
+     * @param row     The row index of the cell.
+     * @param col     The column index of the cell.
+     * @param element A copy of the board element of the cell before the operation.
+     */
+    public void setPreviousElement(int row, int col, BoardElement element) {
+        previousElements.put(row * width + col, element);
+    }
+    
+    /**
+     * Gets the state of a changed cell before the operation.
+     *
+     * @param row The row index of the cell.
+     * @param col The column index of the cell.
+     * @return A copy of the board element of the cell before the operation, or null if it is unknown.
+     */
+    public BoardElement getPreviousElement(int row, int col) {
+        return previousElements.get(row * width + col);
+    }
+
+    /**
+     * Checks whether a cell changed.
+     *
+     * @param row The row index of the cell.
+     * @param col The column index of the cell.
+     * @return true if the cell changed, otherwise false.
+     */
+    public boolean contains(int row, int col) {
+        return cells.contains(row * width + col);
+    }
+
+    /**
+     * Checks whether no cell changed.
+     *
+     * @return true if there is no change, otherwise false.
+     */
+    public boolean isEmpty() {
+        return cells.isEmpty();
+    }
+
+    /**
+     * Gets the number of changed cells.
+     *
+     * @return The number of changed cells.
+     */
+    public int size() {
+        return cells.size();
+    }
+
+    /**
+     * Gets the coordinates of the changed cells, in the order in which they changed.
+     *
+     * @return A list of {row, col} coordinates.
+     */
+    public List<int[]> getCells() {
+        List<int[]> coordinates = new ArrayList<>(cells.size());
+        for (int cell : cells) {
+            coordinates.add(new int[] {cell / width, cell % width});
+        }
+        return coordinates;
+    }
+}
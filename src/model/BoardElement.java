@@ -1,29 +1,28 @@
 package model;
 
-import java.awt.Image;
-
 import model.enumeration.BoardElementType;
 
 /**
  * An abstract class representing an element on the game board.
+ * An element is a view of a position of a board store, which holds its state: either a position of the
+ * game board, or the single position of a store of its own for the elements outside of the board.
  *
  * @author hamza-okutucu
  */
 public abstract class BoardElement {
     
-    protected BoardElementType boardElementType;
-    protected int rotations;
-    protected Image image;
+    protected BoardStore store;
+    protected int index;
 
     /**
-     * Initializes a new BoardElement with the specified board element type and number of rotations.
+     * Initializes a new BoardElement viewing a position of a board store.
      *
-     * @param boardElementType The type of board element (e.g., CELL, BORDER, etc.).
-     * @param rotations The number of clockwise 90-degree rotations.
+     * @param store The board store holding the state of the element.
+     * @param index The index of the position of the element in the store.
      */
-    public BoardElement(BoardElementType boardElementType, int rotations) {
-        this.boardElementType = boardElementType;
-        this.rotations = rotations;
+    public BoardElement(BoardStore store, int index) {
+        this.store = store;
+        this.index = index;
     }
 
     /**
@@ -32,7 +31,7 @@ public abstract class BoardElement {
      * @return The type of the board element (e.g., CELL, BORDER, etc.).
      */
     public BoardElementType getBoardElementType() {
-        return boardElementType;
+        return store.isCell(index) ? BoardElementType.CELL : BoardElementType.BORDER;
     }
     
     /**
@@ -41,22 +40,18 @@ public abstract class BoardElement {
      * @return The number of clockwise 90-degree rotations.
      */
     public int getRotations() {
-        return rotations;
+        return store.getRotations(index);
     }
 
     /**
-     * Gets the image representation of the board element.
+     * Checks whether another board element is displayed exactly like this one.
      *
-     * @return The image representing the board element.
+     * @param element The board element to compare with.
+     * @return true if both elements have the same visual state, otherwise false.
      */
-    public Image getImage() {
-        return image;
+    public boolean hasSameStateAs(BoardElement element) {
+        return element != null && store.hasSameState(index, element.store, element.index);
     }
-
-    /**
-     * Updates the image representation of the board element.
-     */
-    public abstract void updateImage();
     
     /**
      * Creates a deep copy of the board element.
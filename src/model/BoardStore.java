@@ -0,0 +1,324 @@
+package model;
+
+import model.enumeration.BorderType;
+import model.enumeration.PathComponentColor;
+import model.enumeration.PipeType;
+
+/**
+ * Stores the state of a game board in primitive arrays, one entry per position, rather than in an object
+ * per element. Each position holds a byte for its type, which is the ordinal of its pipe type for a cell and
+ * of its border type for a border, a byte for its rotations and a byte of flags telling what it holds.
+ * Each position also holds the color bytes of the two path components a pipe may have.
+ * <p>
+ * The board elements handed out by the store are views reading and writing these arrays, so that a board of
+ * a million positions takes a few megabytes, a full scan runs over contiguous arrays, and a snapshot of the
+ * board is a copy of its arrays.
+ *
+ * @author hamza-okutucu
+ */
+public class BoardStore {
+
+    /**
+     * The flag of the positions holding a cell.
+     */
+    static final byte CELL = 1;
+
+    /**
+     * The flag of the positions holding a border.
+     */
+    static final byte BORDER = 2;
+
+    /**
+     * The flag of the cells attached to the board.
+     */
+    static final byte ATTACHED = 4;
+
+    private static final PipeType[] PIPE_TYPES = PipeType.values();
+    private static final BorderType[] BORDER_TYPES = BorderType.values();
+    private static final PathComponentColor[] COLORS = PathComponentColor.values();
+
+    private int height;
+    private int width;
+    private byte[] types;
+    private byte[] rotations;
+    private byte[] flags;
+    private byte[] colors;
+
+    /**
+     * Constructs a new BoardStore of the given size, whose positions hold no element.
+     *
+     * @param height The height of the game board.
+     * @param width  The width of the game board.
+     */
+    public BoardStore(int height, int width) {
+        this.height = height;
+        this.width = width;
+        this.types = new byte[height * width];
+        this.rotations = new byte[height * width];
+        this.flags = new byte[height * width];
+        this.colors = new byte[height * width * 2];
+    }
+
+    /**
+     * Constructs a copy of an existing BoardStore.
+     *
+     * @param boardStore The BoardStore to copy.
+     */
+    public BoardStore(BoardStore boardStore) {
+        this.height = boardStore.height;
+        this.width = boardStore.width;
+        this.types = boardStore.types.clone();
+        this.rotations = boardStore.rotations.clone();
+        this.flags = boardStore.flags.clone();
+        this.colors = boardStore.colors.clone();
+    }
+
+    /**
+     * Gets the height of the game board.
+     *
+     * @return The number of rows.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the width of the game board.
+     *
+     * @return The number of columns.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the index of a position in the arrays of the store.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     * @return The index of the position.
+     */
+    public int getIndex(int row, int col) {
+        return row * width + col;
+    }
+
+    /**
+     * Gets a view of the board element at a position, which reflects the later changes of the position.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     * @return The board element, or null if the position holds no element.
+     */
+    public BoardElement getElement(int row, int col) {
+        int index = getIndex(row, col);
+
+        if (isCell(index)) return new BoardCell(this, index);
+        if (isBorder(index)) return new BoardBorder(this, index);
+
+        return null;
+    }
+
+    /**
+     * Copies the state of a board element to a position.
+     *
+     * @param row     The row index.
+     * @param col     The column index.
+     * @param element The board element, or null to leave the position without element.
+     */
+    public void setElement(int row, int col, BoardElement element) {
+        int index = getIndex(row, col);
+
+        if (element == null) {
+            flags[index] = 0;
+            return;
+        }
+
+        copy(element.store, element.index, index);
+    }
+
+    /**
+     * Places a cell at a position.
+     *
+     * @param row       The row index.
+     * @param col       The column index.
+     * @param pipeType  The type of the pipe of the cell.
+     * @param color     The color of the path components of the pipe.
+     * @param rotations The number of clockwise 90-degree rotations.
+     * @param attached  Indicates if the cell is attached to the board.
+     */
+    public void setCell(int row, int col, PipeType pipeType, PathComponentColor color, int rotations, boolean attached) {
+        int index = getIndex(row, col);
+
+        types[index] = (byte) pipeType.ordinal();
+        this.rotations[index] = (byte) rotations;
+        flags[index] = attached ? CELL | ATTACHED : CELL;
+        colors[index * 2] = (byte) color.ordinal();
+        colors[index * 2 + 1] = (byte) color.ordinal();
+    }
+
+    /**
+     * Places a border at a position.
+     *
+     * @param row        The row index.
+     * @param col        The column index.
+     * @param borderType The type of the border.
+     * @param rotations  The number of clockwise 90-degree rotations.
+     */
+    public void setBorder(int row, int col, BorderType borderType, int rotations) {
+        int index = getIndex(row, col);
+
+        types[index] = (byte) borderType.ordinal();
+        this.rotations[index] = (byte) rotations;
+        flags[index] = BORDER;
+    }
+
+    /**
+     * Checks whether a position holds a cell.
+     *
+     * @param index The index of the position.
+     * @return true if the position holds a cell, otherwise false.
+     */
+    public boolean isCell(int index) {
+        return (flags[index] & CELL) != 0;
+    }
+
+    /**
+     * Checks whether a position holds a border.
+     *
+     * @param index The index of the position.
+     * @return true if the position holds a border, otherwise false.
+     */
+    public boolean isBorder(int index) {
+        return (flags[index] & BORDER) != 0;
+    }
+
+    /**
+     * Checks whether the cell at a position is attached to the board.
+     *
+     * @param index The index of the position.
+     * @return true if the cell is attached, otherwise false.
+     */
+    public boolean isAttached(int index) {
+        return (flags[index] & ATTACHED) != 0;
+    }
+
+    /**
+     * Gets the type of the pipe of the cell at a position.
+     *
+     * @param index The index of the position.
+     * @return The type of the pipe.
+     */
+    public PipeType getPipeType(int index) {
+        return PIPE_TYPES[types[index]];
+    }
+
+    /**
+     * Gets the type of the border at a position.
+     *
+     * @param index The index of the position.
+     * @return The type of the border.
+     */
+    public BorderType getBorderType(int index) {
+        return BORDER_TYPES[types[index]];
+    }
+
+    /**
+     * Gets the number of rotations of the element at a position.
+     *
+     * @param index The index of the position.
+     * @return The number of clockwise 90-degree rotations.
+     */
+    public int getRotations(int index) {
+        return rotations[index];
+    }
+
+    /**
+     * Gets the number of path components of the element at a position.
+     *
+     * @param index The index of the position.
+     * @return The number of path components of the pipe, 0 if the position holds no cell.
+     */
+    public int getPathComponentCount(int index) {
+        return isCell(index) ? PathComponent.getPortTemplates(getPipeType(index), rotations[index]).length : 0;
+    }
+
+    /**
+     * Gets the port mask of a path component of the pipe at a position.
+     *
+     * @param index     The index of the position.
+     * @param component The index of the path component in its pipe.
+     * @return The port mask, whose bit i is set when the component opens towards the direction of ordinal i.
+     */
+    public int getPorts(int index, int component) {
+        return PathComponent.getPortTemplates(getPipeType(index), rotations[index])[component];
+    }
+
+    /**
+     * Gets the color of a path component of the pipe at a position.
+     *
+     * @param index     The index of the position.
+     * @param component The index of the path component in its pipe.
+     * @return The color of the path component.
+     */
+    public PathComponentColor getColor(int index, int component) {
+        return COLORS[colors[index * 2 + component]];
+    }
+
+    /**
+     * Sets the color of a path component of the pipe at a position.
+     *
+     * @param index     The index of the position.
+     * @param component The index of the path component in its pipe.
+     * @param color     The new color of the path component.
+     */
+    public void setColor(int index, int component, PathComponentColor color) {
+        colors[index * 2 + component] = (byte) color.ordinal();
+    }
+
+    /**
+     * Checks whether a position of another store is displayed exactly like a position of this one.
+     *
+     * @param index      The index of the position in this store.
+     * @param store      The other store.
+     * @param otherIndex The index of the position in the other store.
+     * @return true if both positions have the same visual state, otherwise false.
+     */
+    public boolean hasSameState(int index, BoardStore store, int otherIndex) {
+        if (flags[index] != store.flags[otherIndex]) return false;
+        if (flags[index] == 0) return true;
+
+        if (types[index] != store.types[otherIndex] || rotations[index] != store.rotations[otherIndex]) return false;
+
+        int pathComponentCount = getPathComponentCount(index);
+
+        for (int component = 0; component < pathComponentCount; component++) {
+            if (colors[index * 2 + component] != store.colors[otherIndex * 2 + component]) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Copies the state of a position of another store to a position of this one.
+     *
+     * @param store       The store to copy from.
+     * @param sourceIndex The index of the position in the other store.
+     * @param index       The index of the position in this store.
+     */
+    void copy(BoardStore store, int sourceIndex, int index) {
+        types[index] = store.types[sourceIndex];
+        rotations[index] = store.rotations[sourceIndex];
+        flags[index] = store.flags[sourceIndex];
+        colors[index * 2] = store.colors[sourceIndex * 2];
+        colors[index * 2 + 1] = store.colors[sourceIndex * 2 + 1];
+    }
+
+    /**
+     * Creates a copy of the store, whose arrays are copied.
+     *
+     * @return A new BoardStore with the same content as this one.
+     */
+    public BoardStore deepCopy() {
+        return new BoardStore(this);
+    }
+}
@@ -0,0 +1,937 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+
+import model.enumeration.BoardElementType;
+import model.enumeration.PathComponentColor;
+import model.enumeration.PipeType;
+
+/**
+ * Indexes the networks of connected path components of a game board.
+ * Each path component of the board has a slot, numbered {@code (row * width + col) * 2 + index} since a pipe
+ * has at most two path components, which holds the identifier of its network. The members of a network are
+ * the connected path components carrying its identifier, so that a network is relabeled or recolored by
+ * walking its connections from one of its members, without searching the board.
+ * <p>
+ * The data of the networks is sized by the number of networks rather than by the number of slots: each network
+ * has a size, and the networks reaching sources have a row of a side table counting them by color, from which
+ * the color of their pipes is read: gray without source, the color of the source with one source color,
+ * and dark gray with several.
+ * <p>
+ * Merging two networks relabels the members of the smaller one. Removing a pipe may split its network:
+ * the pieces are searched in parallel from the neighbors of the pipe, and the search stops as soon as a
+ * single piece is left unexplored, so that only the smaller pieces are visited and relabeled while the
+ * largest keeps the identifier of the network.
+ * <p>
+ * The traversals of the board run on reusable work stacks rather than recursively, and mark the visited slots
+ * with the generation of the traversal in a byte per slot, so that networks of millions of path components are
+ * traversed without allocating.
+ *
+ * @author hamza-okutucu
+ */
+public class ComponentIndex {
+
+    private static final int[][] NEIGHBOR_OFFSETS = {{-1, 0}, {0, 1}, {1, 0}, {0, -1}};
+    private static final PathComponentColor[] COLORS = PathComponentColor.values();
+
+    /**
+     * The maximum number of searches run in parallel, one for each port of the removed pipe.
+     */
+    private static final int MAX_SEARCHES = 4;
+
+    /**
+     * The largest generation which fits in the byte marking a visited slot.
+     */
+    private static final int MAX_GENERATION = 0xFF;
+
+    /**
+     * The number of networks the per-network arrays can hold before they first grow.
+     */
+    private static final int INITIAL_NETWORK_CAPACITY = 16;
+
+    private BoardStore board;
+    private int height;
+    private int width;
+    private int[] networks;
+    private byte[] marks;
+    private int generation;
+    private int[] sizes;
+    private int[] sourceRows;
+    private int networkCount;
+    private int[] freeNetworks;
+    private int freeNetworkCount;
+    private int[] sourceCounts;
+    private int sourceRowCount;
+    private int[] freeSourceRows;
+    private int freeSourceRowCount;
+    private int[][] workStacks;
+    private int[] workStackSizes;
+    private int[][] visitedSlots;
+    private int[] visitedCounts;
+    private int[] groups;
+    private int[] neighborSlots;
+    private int[] connectedSlots;
+    private int[] mergedNetworks;
+    private int[] mergedSlots;
+
+    /**
+     * Constructs a new ComponentIndex of the networks of a game board.
+     *
+     * @param board The game board.
+     */
+    public ComponentIndex(BoardStore board) {
+        this.workStacks = new int[MAX_SEARCHES][16];
+        this.workStackSizes = new int[MAX_SEARCHES];
+        this.visitedSlots = new int[MAX_SEARCHES][16];
+        this.visitedCounts = new int[MAX_SEARCHES];
+        this.groups = new int[MAX_SEARCHES];
+        this.neighborSlots = new int[MAX_SEARCHES];
+        this.connectedSlots = new int[MAX_SEARCHES];
+        this.mergedNetworks = new int[MAX_SEARCHES + 1];
+        this.mergedSlots = new int[MAX_SEARCHES + 1];
+
+        rebuild(board);
+    }
+
+    /**
+     * Rebuilds the index from the current state of a game board, without changing the colors of its pipes.
+     *
+     * @param board The game board.
+     */
+    public void rebuild(BoardStore board) {
+        this.board = board;
+        this.height = board.getHeight();
+        this.width = board.getWidth();
+
+        int slotCount = height * width * 2;
+
+        if (networks == null || networks.length != slotCount) {
+            networks = new int[slotCount];
+            marks = new byte[slotCount];
+            generation = 0;
+        }
+
+        Arrays.fill(networks, -1);
+
+        sizes = new int[INITIAL_NETWORK_CAPACITY];
+        sourceRows = new int[INITIAL_NETWORK_CAPACITY];
+        freeNetworks = new int[INITIAL_NETWORK_CAPACITY];
+        networkCount = 0;
+        freeNetworkCount = 0;
+        sourceCounts = new int[COLORS.length];
+        freeSourceRows = new int[1];
+        sourceRowCount = 0;
+        freeSourceRowCount = 0;
+
+        beginTraversal();
+
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                int pathComponentCount = getPathComponentCount(row, col);
+
+                for (int index = 0; index < pathComponentCount; index++) {
+                    int slot = getSlot(row, col, index);
+
+                    if (!isVisited(slot)) labelNetwork(slot);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gives every pipe of the board the color of its network.
+     *
+     * @param changes The changes recording the cells whose color changed.
+     */
+    public void recolorAll(BoardChanges changes) {
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                int pathComponentCount = getPathComponentCount(row, col);
+
+                for (int index = 0; index < pathComponentCount; index++) {
+                    int slot = getSlot(row, col, index);
+                    recolorSlot(slot, getNetworkColor(networks[slot]), changes);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the path components of a pipe placed on a cell which had none, merging the networks it connects
+     * and recoloring the members of the networks whose color changes.
+     *
+     * @param row     The row index of the cell.
+     * @param col     The column index of the cell.
+     * @param changes The changes recording the cells whose color changed.
+     */
+    public void addCell(int row, int col, BoardChanges changes) {
+        int pathComponentCount = getPathComponentCount(row, col);
+
+        createNetworks(row, col);
+
+        for (int index = 0; index < pathComponentCount; index++) {
+            int slot = getSlot(row, col, index);
+            int mergedNetworkCount = 0;
+            int mergedSourceColors = 0;
+
+            mergedNetworks[mergedNetworkCount] = networks[slot];
+            mergedSlots[mergedNetworkCount++] = slot;
+
+            int connectedSlotCount = getConnectedSlots(row, col, board.getPorts(board.getIndex(row, col), index), true, connectedSlots);
+
+            for (int connected = 0; connected < connectedSlotCount; connected++) {
+                int network = networks[connectedSlots[connected]];
+
+                if (!contains(mergedNetworks, mergedNetworkCount, network)) {
+                    mergedNetworks[mergedNetworkCount] = network;
+                    mergedSlots[mergedNetworkCount++] = connectedSlots[connected];
+                }
+            }
+
+            for (int merged = 0; merged < mergedNetworkCount; merged++) {
+                mergedSourceColors |= getSourceColors(mergedNetworks[merged]);
+            }
+
+            PathComponentColor color = getColor(mergedSourceColors);
+
+            for (int merged = 0; merged < mergedNetworkCount; merged++) {
+                if (getNetworkColor(mergedNetworks[merged]) != color) {
+                    recolorNetwork(mergedSlots[merged], color, changes);
+                }
+            }
+
+            recolorSlot(slot, color, changes);
+
+            for (int merged = 0; merged < mergedNetworkCount; merged++) {
+                merge(slot, mergedSlots[merged]);
+            }
+        }
+    }
+
+    /**
+     * Removes the path components of a pipe taken from a cell, splitting the networks it connected
+     * and recoloring the pieces whose color changes. The cell must no longer hold the pipe.
+     *
+     * @param row     The row index of the cell.
+     * @param col     The column index of the cell.
+     * @param removed A copy of the board element which held the pipe.
+     * @param changes The changes recording the cells whose color changed.
+     */
+    public void removeCell(int row, int col, BoardElement removed, BoardChanges changes) {
+        if (removed == null || removed.getBoardElementType() != BoardElementType.CELL) return;
+
+        List<PathComponent> pathComponents = ((BoardCell) removed).getPipe().getPathComponents();
+        int pathComponentCount = pathComponents.size();
+        int[] removedNetworks = new int[pathComponentCount];
+        PathComponentColor[] colors = new PathComponentColor[pathComponentCount];
+        int[][] seeds = new int[pathComponentCount][MAX_SEARCHES];
+        int[] seedCounts = new int[pathComponentCount];
+
+        for (int index = 0; index < pathComponentCount; index++) {
+            removedNetworks[index] = networks[getSlot(row, col, index)];
+            if (removedNetworks[index] == -1) continue;
+
+            colors[index] = getNetworkColor(removedNetworks[index]);
+            seedCounts[index] = getConnectedSlots(row, col, pathComponents.get(index).getPorts(), true, seeds[index]);
+        }
+
+        for (int index = 0; index < pathComponentCount; index++) {
+            if (removedNetworks[index] == -1) continue;
+
+            unlink(getSlot(row, col, index), getSourceColor((BoardCell) removed, pathComponents.get(index)));
+        }
+
+        if (pathComponentCount == 2 && removedNetworks[0] == removedNetworks[1]) {
+            System.arraycopy(seeds[1], 0, seeds[0], seedCounts[0], seedCounts[1]);
+            seedCounts[0] += seedCounts[1];
+            seedCounts[1] = 0;
+        }
+
+        for (int index = 0; index < pathComponentCount; index++) {
+            if (seedCounts[index] == 0) continue;
+
+            split(removedNetworks[index], seeds[index], seedCounts[index], colors[index], changes);
+        }
+    }
+
+    /**
+     * Checks whether the first values of an array contain a value.
+     *
+     * @param values The array.
+     * @param count  The number of values to look at.
+     * @param value  The value to look for.
+     * @return true if the value is one of the first values of the array, otherwise false.
+     */
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Gets the color of the network of a path component.
+     *
+     * @param row   The row index of the cell.
+     * @param col   The column index of the cell.
+     * @param index The index of the path component in its pipe.
+     * @return The color of the pipes of the network.
+     */
+    public PathComponentColor getColor(int row, int col, int index) {
+        return getNetworkColor(networks[getSlot(row, col, index)]);
+    }
+
+    /**
+     * Gets the path components of the neighboring cells connected to a path component, that is the path
+     * components the water flows to. They are numbered {@code (row * width + col) * 2 + index}, like the slots.
+     *
+     * @param row                     The row index of the cell.
+     * @param col                     The column index of the cell.
+     * @param index                   The index of the path component in its pipe.
+     * @param connectedPathComponents The array receiving the connected path components, of at least four entries.
+     * @return The number of connected path components.
+     */
+    public int getConnectedPathComponents(int row, int col, int index, int[] connectedPathComponents) {
+        if (index >= getPathComponentCount(row, col)) return 0;
+
+        return getConnectedSlots(row, col, board.getPorts(board.getIndex(row, col), index), false, connectedPathComponents);
+    }
+
+    /**
+     * Gets the color of the pipes of a network reaching a set of source colors.
+     *
+     * @param sourceColors The set of the colors of the sources, as a bitset of color ordinals.
+     * @return Gray without source, the color of the sources with one source color, otherwise dark gray.
+     */
+    private PathComponentColor getColor(int sourceColors) {
+        if (sourceColors == 0) return PathComponentColor.GRAY;
+        if (Integer.bitCount(sourceColors) > 1) return PathComponentColor.DARK_GRAY;
+
+        return COLORS[Integer.numberOfTrailingZeros(sourceColors)];
+    }
+
+    /**
+     * Gets the color of the pipes of a network.
+     *
+     * @param network The identifier of the network.
+     * @return The color of the pipes of the network.
+     */
+    private PathComponentColor getNetworkColor(int network) {
+        return getColor(getSourceColors(network));
+    }
+
+    /**
+     * Gets the set of the colors of the sources reached by a network.
+     *
+     * @param network The identifier of the network.
+     * @return The set of the colors, as a bitset of color ordinals.
+     */
+    private int getSourceColors(int network) {
+        int sourceRow = sourceRows[network];
+        if (sourceRow == -1) return 0;
+
+        int offset = sourceRow * COLORS.length;
+        int sourceColors = 0;
+
+        for (int color = 0; color < COLORS.length; color++) {
+            if (sourceCounts[offset + color] > 0) sourceColors |= 1 << color;
+        }
+
+        return sourceColors;
+    }
+
+    /**
+     * Gets the color of the source held by a cell.
+     *
+     * @param cell          The cell.
+     * @param pathComponent A path component of the pipe of the cell.
+     * @return The ordinal of the color of the source, or -1 if the cell holds no source.
+     */
+    private int getSourceColor(BoardCell cell, PathComponent pathComponent) {
+        return cell.isSource() ? pathComponent.getColor().ordinal() : -1;
+    }
+
+    /**
+     * Gets the color of the source holding a slot.
+     *
+     * @param slot The slot of a path component.
+     * @return The ordinal of the color of the source, or -1 if the slot does not belong to a source.
+     */
+    private int getSourceColor(int slot) {
+        int index = slot / 2;
+
+        return board.getPipeType(index) == PipeType.SOURCE ? board.getColor(index, slot % 2).ordinal() : -1;
+    }
+
+    /**
+     * Creates a network of its own for each path component of a cell.
+     *
+     * @param row The row index of the cell.
+     * @param col The column index of the cell.
+     */
+    private void createNetworks(int row, int col) {
+        int pathComponentCount = getPathComponentCount(row, col);
+
+        for (int index = 0; index < pathComponentCount; index++) {
+            int slot = getSlot(row, col, index);
+            link(slot, allocateNetwork(), getSourceColor(slot));
+        }
+    }
+
+    /**
+     * Labels a new network with the path components connected to a slot, traversing them from the slot.
+     *
+     * @param slot The slot of a path component which belongs to no network yet.
+     */
+    private void labelNetwork(int slot) {
+        int network = allocateNetwork();
+
+        visit(0, slot);
+
+        while (workStackSizes[0] > 0) {
+            int member = workStacks[0][--workStackSizes[0]];
+            int connectedSlotCount = getConnectedSlots(member, false, neighborSlots);
+
+            link(member, network, getSourceColor(member));
+
+            for (int connected = 0; connected < connectedSlotCount; connected++) {
+                if (!isVisited(neighborSlots[connected])) visit(0, neighborSlots[connected]);
+            }
+        }
+    }
+
+    /**
+     * Splits the network of a removed pipe into its pieces, which are left connected to the neighbors of the pipe.
+     * The pieces found before the search ends get networks of their own, and are recolored if they lost sources.
+     *
+     * @param network   The identifier of the network.
+     * @param seeds     The slots of the neighbors which were connected to the removed pipe.
+     * @param seedCount The number of slots of the neighbors.
+     * @param color     The color of the network before the removal.
+     * @param changes   The changes recording the cells whose color changed.
+     */
+    private void split(int network, int[] seeds, int seedCount, PathComponentColor color, BoardChanges changes) {
+        int keptSeed = seeds[0];
+
+        if (seedCount > 1) {
+            separate(seeds, seedCount);
+
+            int keptGroup = getKeptGroup(seedCount);
+            keptSeed = seeds[keptGroup];
+
+            for (int group = 0; group < seedCount; group++) {
+                if (findGroup(group) != group || group == keptGroup) continue;
+
+                int pieceNetwork = allocateNetwork();
+
+                for (int search = 0; search < seedCount; search++) {
+                    if (findGroup(search) != group) continue;
+
+                    for (int visited = 0; visited < visitedCounts[search]; visited++) {
+                        int slot = visitedSlots[search][visited];
+                        int sourceColor = getSourceColor(slot);
+
+                        unlink(slot, sourceColor);
+                        link(slot, pieceNetwork, sourceColor);
+                    }
+                }
+
+                PathComponentColor pieceColor = getNetworkColor(pieceNetwork);
+                if (pieceColor == color) continue;
+
+                for (int search = 0; search < seedCount; search++) {
+                    if (findGroup(search) != group) continue;
+
+                    for (int visited = 0; visited < visitedCounts[search]; visited++) {
+                        recolorSlot(visitedSlots[search][visited], pieceColor, changes);
+                    }
+                }
+            }
+        }
+
+        if (getNetworkColor(network) != color) {
+            recolorNetwork(keptSeed, getNetworkColor(network), changes);
+        }
+    }
+
+    /**
+     * Searches the pieces connected to a set of slots of a network in parallel, expanding one slot of each
+     * unfinished search in turn. Two searches meeting each other join the same group, since they explore
+     * the same piece. The search ends when at most one group is unfinished, which explores the largest piece
+     * up to the number of searches. The slots visited by each search are recorded.
+     *
+     * @param seeds     The slots the searches start from.
+     * @param seedCount The number of searches.
+     */
+    private void separate(int[] seeds, int seedCount) {
+        beginTraversal();
+
+        for (int search = 0; search < seedCount; search++) {
+            groups[search] = search;
+            visit(search, seeds[search]);
+            record(search, seeds[search]);
+        }
+
+        while (countUnfinishedGroups(seedCount) > 1) {
+            for (int search = 0; search < seedCount; search++) {
+                if (workStackSizes[search] == 0) continue;
+
+                int slot = workStacks[search][--workStackSizes[search]];
+                int connectedSlotCount = getConnectedSlots(slot, true, neighborSlots);
+
+                for (int connected = 0; connected < connectedSlotCount; connected++) {
+                    int neighborSlot = neighborSlots[connected];
+
+                    if (!isVisited(neighborSlot)) {
+                        visit(search, neighborSlot);
+                        record(search, neighborSlot);
+                    } else {
+                        groups[findGroup((marks[neighborSlot] & 0xFF) - generation)] = findGroup(search);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the group of searches whose piece keeps the identifier of the network: the unfinished group
+     * if any, otherwise the group which explored the largest piece.
+     *
+     * @param searchCount The number of searches.
+     * @return The search representing the group.
+     */
+    private int getKeptGroup(int searchCount) {
+        int keptGroup = -1;
+        int keptSize = -1;
+
+        for (int group = 0; group < searchCount; group++) {
+            if (findGroup(group) != group) continue;
+            if (isUnfinishedGroup(group, searchCount)) return group;
+
+            int size = 0;
+
+            for (int search = 0; search < searchCount; search++) {
+                if (findGroup(search) == group) size += visitedCounts[search];
+            }
+
+            if (size > keptSize) {
+                keptGroup = group;
+                keptSize = size;
+            }
+        }
+
+        return keptGroup;
+    }
+
+    /**
+     * Counts the groups of searches which have slots left to expand.
+     *
+     * @param searchCount The number of searches.
+     * @return The number of unfinished groups.
+     */
+    private int countUnfinishedGroups(int searchCount) {
+        int count = 0;
+
+        for (int group = 0; group < searchCount; group++) {
+            if (findGroup(group) == group && isUnfinishedGroup(group, searchCount)) count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Checks whether a search of a group has slots left to expand.
+     *
+     * @param group       The search representing the group.
+     * @param searchCount The number of searches.
+     * @return true if the group is unfinished, otherwise false.
+     */
+    private boolean isUnfinishedGroup(int group, int searchCount) {
+        for (int search = 0; search < searchCount; search++) {
+            if (findGroup(search) == group && workStackSizes[search] > 0) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Finds the search representing the group of a search.
+     *
+     * @param search The index of the search.
+     * @return The index of the search representing its group.
+     */
+    private int findGroup(int search) {
+        while (groups[search] != search) {
+            search = groups[search];
+        }
+
+        return search;
+    }
+
+    /**
+     * Starts a new traversal of the board, on which no slot is visited yet. The marks of the previous
+     * traversals are cleared only when the generations no longer fit in a byte.
+     */
+    private void beginTraversal() {
+        if (generation + 2 * MAX_SEARCHES > MAX_GENERATION) {
+            Arrays.fill(marks, (byte) 0);
+            generation = 0;
+        }
+
+        generation += MAX_SEARCHES;
+        Arrays.fill(workStackSizes, 0);
+        Arrays.fill(visitedCounts, 0);
+    }
+
+    /**
+     * Checks whether a slot was visited by the current traversal.
+     *
+     * @param slot The slot of a path component.
+     * @return true if the slot was visited, otherwise false.
+     */
+    private boolean isVisited(int slot) {
+        return (marks[slot] & 0xFF) >= generation;
+    }
+
+    /**
+     * Marks a slot as visited by a search of the current traversal, and pushes it on the work stack of the search.
+     *
+     * @param search The index of the search.
+     * @param slot   The slot of a path component.
+     */
+    private void visit(int search, int slot) {
+        marks[slot] = (byte) (generation + search);
+        push(search, slot);
+    }
+
+    /**
+     * Pushes a slot on the work stack of a search.
+     *
+     * @param search The index of the search.
+     * @param slot   The slot of a path component.
+     */
+    private void push(int search, int slot) {
+        if (workStackSizes[search] == workStacks[search].length) {
+            workStacks[search] = Arrays.copyOf(workStacks[search], workStacks[search].length * 2);
+        }
+
+        workStacks[search][workStackSizes[search]++] = slot;
+    }
+
+    /**
+     * Records a slot among the slots visited by a search.
+     *
+     * @param search The index of the search.
+     * @param slot   The slot of a path component.
+     */
+    private void record(int search, int slot) {
+        if (visitedCounts[search] == visitedSlots[search].length) {
+            visitedSlots[search] = Arrays.copyOf(visitedSlots[search], visitedSlots[search].length * 2);
+        }
+
+        visitedSlots[search][visitedCounts[search]++] = slot;
+    }
+
+    /**
+     * Gets the slots of the path components of the neighboring cells connected to the path component of a slot.
+     *
+     * @param slot           The slot of the path component.
+     * @param indexedOnly    Whether to ignore the path components which belong to no network.
+     * @param connectedSlots The array receiving the slots of the connected path components.
+     * @return The number of connected path components.
+     */
+    private int getConnectedSlots(int slot, boolean indexedOnly, int[] connectedSlots) {
+        int row = slot / 2 / width;
+        int col = slot / 2 % width;
+
+        return getConnectedSlots(row, col, board.getPorts(slot / 2, slot % 2), indexedOnly, connectedSlots);
+    }
+
+    /**
+     * Gets the slots of the path components of the neighboring cells connected to a path component.
+     * A path component is connected to at most one path component in each direction.
+     *
+     * @param row            The row index of the cell.
+     * @param col            The column index of the cell.
+     * @param ports          The port mask of the path component.
+     * @param indexedOnly    Whether to ignore the path components which belong to no network.
+     * @param connectedSlots The array receiving the slots of the connected path components.
+     * @return The number of connected path components.
+     */
+    private int getConnectedSlots(int row, int col, int ports, boolean indexedOnly, int[] connectedSlots) {
+        int connectedSlotCount = 0;
+
+        for (int direction = 0; direction < NEIGHBOR_OFFSETS.length; direction++) {
+            int newRow = row + NEIGHBOR_OFFSETS[direction][0];
+            int newCol = col + NEIGHBOR_OFFSETS[direction][1];
+
+            if (newRow < 0 || newCol < 0 || newRow >= height || newCol >= width) continue;
+
+            if ((ports & 1 << direction) == 0) continue;
+
+            int neighborIndex = board.getIndex(newRow, newCol);
+            int neighborPathComponentCount = board.getPathComponentCount(neighborIndex);
+
+            for (int index = 0; index < neighborPathComponentCount; index++) {
+                int neighborSlot = getSlot(newRow, newCol, index);
+
+                if (indexedOnly && networks[neighborSlot] == -1) continue;
+
+                if ((PathComponent.rotatePorts(board.getPorts(neighborIndex, index), 2) & 1 << direction) != 0) {
+                    connectedSlots[connectedSlotCount++] = neighborSlot;
+                    break;
+                }
+            }
+        }
+
+        return connectedSlotCount;
+    }
+
+    /**
+     * Gives the members of a network a new color, walking the network from one of its members.
+     * The sources keep their own color.
+     *
+     * @param slot    The slot of a member of the network.
+     * @param color   The new color of the network.
+     * @param changes The changes recording the cells whose color changed.
+     */
+    private void recolorNetwork(int slot, PathComponentColor color, BoardChanges changes) {
+        int network = networks[slot];
+
+        beginTraversal();
+        visit(0, slot);
+
+        while (workStackSizes[0] > 0) {
+            int member = workStacks[0][--workStackSizes[0]];
+            int connectedSlotCount = getConnectedSlots(member, true, neighborSlots);
+
+            recolorSlot(member, color, changes);
+
+            for (int connected = 0; connected < connectedSlotCount; connected++) {
+                int neighborSlot = neighborSlots[connected];
+
+                if (networks[neighborSlot] == network && !isVisited(neighborSlot)) visit(0, neighborSlot);
+            }
+        }
+    }
+
+    /**
+     * Gives a path component a new color, unless it belongs to a source.
+     *
+     * @param slot    The slot of the path component.
+     * @param color   The new color of the path component.
+     * @param changes The changes recording the cells whose color changed.
+     */
+    private void recolorSlot(int slot, PathComponentColor color, BoardChanges changes) {
+        int index = slot / 2;
+
+        if (board.getPipeType(index) == PipeType.SOURCE) return;
+
+        if (board.getColor(index, slot % 2) != color) {
+            board.setColor(index, slot % 2, color);
+            changes.add(index / width, index % width);
+        }
+    }
+
+    /**
+     * Takes an unused network identifier, reusing a released one when possible.
+     *
+     * @return The identifier of an empty network.
+     */
+    private int allocateNetwork() {
+        int network;
+
+        if (freeNetworkCount > 0) {
+            network = freeNetworks[--freeNetworkCount];
+        } else {
+            network = networkCount++;
+
+            if (network == sizes.length) {
+                sizes = Arrays.copyOf(sizes, sizes.length * 2);
+                sourceRows = Arrays.copyOf(sourceRows, sourceRows.length * 2);
+                freeNetworks = Arrays.copyOf(freeNetworks, freeNetworks.length * 2);
+            }
+        }
+
+        sizes[network] = 0;
+        sourceRows[network] = -1;
+
+        return network;
+    }
+
+    /**
+     * Releases the identifier of an empty network.
+     *
+     * @param network The identifier of the network.
+     */
+    private void releaseNetwork(int network) {
+        releaseSourceRow(network);
+        freeNetworks[freeNetworkCount++] = network;
+    }
+
+    /**
+     * Gets the row of the side table counting the sources of a network, taking one if the network has none.
+     *
+     * @param network The identifier of the network.
+     * @return The row of the network.
+     */
+    private int getSourceRow(int network) {
+        if (sourceRows[network] != -1) return sourceRows[network];
+
+        int sourceRow;
+
+        if (freeSourceRowCount > 0) {
+            sourceRow = freeSourceRows[--freeSourceRowCount];
+        } else {
+            sourceRow = sourceRowCount++;
+
+            if (sourceRow * COLORS.length == sourceCounts.length) {
+                sourceCounts = Arrays.copyOf(sourceCounts, sourceCounts.length * 2);
+                freeSourceRows = Arrays.copyOf(freeSourceRows, freeSourceRows.length * 2);
+            }
+        }
+
+        Arrays.fill(sourceCounts, sourceRow * COLORS.length, (sourceRow + 1) * COLORS.length, 0);
+        sourceRows[network] = sourceRow;
+
+        return sourceRow;
+    }
+
+    /**
+     * Releases the row of the side table counting the sources of a network, if it has one.
+     *
+     * @param network The identifier of the network.
+     */
+    private void releaseSourceRow(int network) {
+        if (sourceRows[network] == -1) return;
+
+        freeSourceRows[freeSourceRowCount++] = sourceRows[network];
+        sourceRows[network] = -1;
+    }
+
+    /**
+     * Adds a slot to the members of a network.
+     *
+     * @param slot        The slot of a path component.
+     * @param network     The identifier of the network.
+     * @param sourceColor The ordinal of the color of the source holding the slot, or -1.
+     */
+    private void link(int slot, int network, int sourceColor) {
+        networks[slot] = network;
+        sizes[network]++;
+
+        if (sourceColor != -1) {
+            int sourceRow = getSourceRow(network);
+            sourceCounts[sourceRow * COLORS.length + sourceColor]++;
+        }
+    }
+
+    /**
+     * Removes a slot from the members of its network, releasing the network once empty.
+     *
+     * @param slot        The slot of a path component.
+     * @param sourceColor The ordinal of the color of the source holding the slot, or -1.
+     */
+    private void unlink(int slot, int sourceColor) {
+        int network = networks[slot];
+
+        networks[slot] = -1;
+        sizes[network]--;
+
+        if (sourceColor != -1) {
+            sourceCounts[sourceRows[network] * COLORS.length + sourceColor]--;
+            if (getSourceColors(network) == 0) releaseSourceRow(network);
+        }
+
+        if (sizes[network] == 0) releaseNetwork(network);
+    }
+
+    /**
+     * Merges the networks of two slots, relabeling the members of the smaller one by walking it from its slot.
+     *
+     * @param slot      The slot of a member of a network.
+     * @param otherSlot The slot of a member of another network.
+     */
+    private void merge(int slot, int otherSlot) {
+        int first = networks[slot];
+        int second = networks[otherSlot];
+
+        if (first == second) return;
+
+        if (sizes[first] < sizes[second]) {
+            first = networks[otherSlot];
+            second = networks[slot];
+            otherSlot = slot;
+        }
+
+        relabel(otherSlot, first);
+
+        sizes[first] += sizes[second];
+        sizes[second] = 0;
+
+        if (sourceRows[second] != -1) {
+            int secondOffset = sourceRows[second] * COLORS.length;
+            int offset = getSourceRow(first) * COLORS.length;
+
+            for (int color = 0; color < COLORS.length; color++) {
+                sourceCounts[offset + color] += sourceCounts[secondOffset + color];
+            }
+        }
+
+        releaseNetwork(second);
+    }
+
+    /**
+     * Gives the members of a network the identifier of another network, walking the network from one of its
+     * members. The relabeled members are told apart by their new identifier, so no slot is marked.
+     *
+     * @param slot    The slot of a member of the network.
+     * @param network The new identifier of the members.
+     */
+    private void relabel(int slot, int network) {
+        int previousNetwork = networks[slot];
+
+        networks[slot] = network;
+        workStackSizes[0] = 0;
+        push(0, slot);
+
+        while (workStackSizes[0] > 0) {
+            int member = workStacks[0][--workStackSizes[0]];
+            int connectedSlotCount = getConnectedSlots(member, true, neighborSlots);
+
+            for (int connected = 0; connected < connectedSlotCount; connected++) {
+                int neighborSlot = neighborSlots[connected];
+
+                if (networks[neighborSlot] == previousNetwork) {
+                    networks[neighborSlot] = network;
+                    push(0, neighborSlot);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the slot of a path component.
+     *
+     * @param row   The row index of the cell.
+     * @param col   The column index of the cell.
+     * @param index The index of the path component in its pipe.
+     * @return The slot of the path component.
+     */
+    private int getSlot(int row, int col, int index) {
+        return (row * width + col) * 2 + index;
+    }
+
+    /**
+     * Gets the number of path components of the pipe at a position of the board.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     * @return The number of path components, 0 if the position holds no pipe.
+     */
+    private int getPathComponentCount(int row, int col) {
+        return board.getPathComponentCount(board.getIndex(row, col));
+    }
+}
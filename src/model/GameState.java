@@ -7,26 +7,26 @@ package model;
  */
 public class GameState {
 	
-    private BoardElement[][] board;
+    private BoardStore board;
     private PipeStock pipeStock;
 
     /**
      * Initializes a new game state with the provided game board and pipe stock.
      *
-     * @param board The 2D array representing the game board's elements.
+     * @param board The store holding the game board's elements.
      * @param pipeStock The pipe stock containing available pipes for the game.
      */
-    public GameState(BoardElement[][] board, PipeStock pipeStock) {
+    public GameState(BoardStore board, PipeStock pipeStock) {
         this.board = board;
         this.pipeStock = pipeStock;
     }
 
     /**
-     * Gets the 2D array representing the game board's elements.
+     * Gets the store holding the game board's elements.
      *
      * @return The current state of the game board.
      */
-    public BoardElement[][] getBoard() {
+    public BoardStore getBoard() {
         return board;
     }
 
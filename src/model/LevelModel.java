@@ -4,20 +4,11 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
 import java.util.Stack;
-import java.util.stream.Collectors;
 
-import model.enumeration.BoardElementType;
 import model.enumeration.BorderType;
 import model.enumeration.PathComponentColor;
 import model.enumeration.PipeType;
-import model.enumeration.Position;
 
 /**
  * Represents the model of a game level, including the game board, available pipes, and game state.
@@ -29,11 +20,12 @@ public class LevelModel {
     private int level;
     private int height;
     private int width;
-    private BoardElement[][] board;
+    private BoardStore board;
     private PipeStock stock;
     private File levelFile;
     private Stack<GameState> undoStack;
     private Stack<GameState> redoStack;
+    private ComponentIndex componentIndex;
     
     /**
      * Initializes a new level model by loading a level from the provided level file.
@@ -64,7 +56,7 @@ public class LevelModel {
             int w = Integer.parseInt(dimensions[1]);
             this.height = h;
             this.width = w;
-            this.board = new BoardElement[h][w];
+            this.board = new BoardStore(h, w);
 
             for (int row = 0; row < h; row++) {
                 String[] elements = reader.readLine().split("\\s+");
@@ -77,6 +69,10 @@ public class LevelModel {
                     updateBoardAndStock(elementStr, isAttached, row, col);
                 }
             }
+            
+            componentIndex = new ComponentIndex(board);
+            // The attached pipes of the level file are gray, even those connected to a source.
+            componentIndex.recolorAll(new BoardChanges(w));
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -141,15 +137,15 @@ public class LevelModel {
      */
     private void handleBorder(int row, int col) {
         if (row == 0) {
-            if (col == 0) board[row][col] = new BoardBorder(BorderType.CORNER, 0);
-            else if (col == width - 1) board[row][col] = new BoardBorder(BorderType.CORNER, 1);
-            else board[row][col] = new BoardBorder(BorderType.SIDE, 0);
+            if (col == 0) board.setBorder(row, col, BorderType.CORNER, 0);
+            else if (col == width - 1) board.setBorder(row, col, BorderType.CORNER, 1);
+            else board.setBorder(row, col, BorderType.SIDE, 0);
         } else if (row == height - 1) {
-            if (col == 0) board[row][col] = new BoardBorder(BorderType.CORNER, 3);
-            else if (col == width - 1) board[row][col] = new BoardBorder(BorderType.CORNER, 2);
-            else board[row][col] = new BoardBorder(BorderType.SIDE, 2);
-        } else if (col == 0) board[row][col] = new BoardBorder(BorderType.SIDE, 3);
-        else if (col == width - 1) board[row][col] = new BoardBorder(BorderType.SIDE, 1);
+            if (col == 0) board.setBorder(row, col, BorderType.CORNER, 3);
+            else if (col == width - 1) board.setBorder(row, col, BorderType.CORNER, 2);
+            else board.setBorder(row, col, BorderType.SIDE, 2);
+        } else if (col == 0) board.setBorder(row, col, BorderType.SIDE, 3);
+        else if (col == width - 1) board.setBorder(row, col, BorderType.SIDE, 1);
     }
 
     /**
@@ -163,7 +159,7 @@ public class LevelModel {
      * @param col        The column index where the source pipe is located.
      */
     private void handleSource(PipeType pipeType, PathComponentColor color, int rotations, boolean isAttached, int row, int col) {
-        board[row][col] = new BoardCell(pipeType, color, rotations, isAttached);
+        board.setCell(row, col, pipeType, color, rotations, isAttached);
     }
 
     /**
@@ -175,7 +171,7 @@ public class LevelModel {
      * @param col        The column index where the empty pipe is located.
      */
     private void handleEmpty(int rotations, boolean isAttached, int row, int col) {
-        board[row][col] = new BoardCell(PipeType.EMPTY, PathComponentColor.GRAY, rotations, isAttached);
+        board.setCell(row, col, PipeType.EMPTY, PathComponentColor.GRAY, rotations, isAttached);
     }
 
     /**
@@ -189,10 +185,10 @@ public class LevelModel {
      */
     private void handlePipe(PipeType pipeType, int rotations, boolean isAttached, int row, int col) {
     	if(isAttached) {
-    		board[row][col] = new BoardCell(pipeType, PathComponentColor.GRAY, rotations, isAttached);
+    		board.setCell(row, col, pipeType, PathComponentColor.GRAY, rotations, isAttached);
     	} else {
     		stock.addPipe(pipeType, rotations);
-    		board[row][col] = new BoardCell(PipeType.EMPTY, PathComponentColor.GRAY, rotations, isAttached);
+    		board.setCell(row, col, PipeType.EMPTY, PathComponentColor.GRAY, rotations, isAttached);
     	}
     }
 
@@ -247,13 +243,39 @@ public class LevelModel {
 
     /**
      * Gets the board element at the specified row and column.
+     * The element is a view of the position, which reflects the later operations on the board.
      *
      * @param row The row index.
      * @param col The column index.
-     * @return The board element at the specified position.
+     * @return The board element at the specified position, or null if the position holds no element.
      */
     public BoardElement getElement(int row, int col) {
-        return board[row][col];
+        return board.getElement(row, col);
+    }
+
+    /**
+     * Gets the number of path components of the pipe at the specified row and column.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     * @return The number of path components, 0 if the position holds no pipe.
+     */
+    public int getPathComponentCount(int row, int col) {
+        return board.getPathComponentCount(board.getIndex(row, col));
+    }
+
+    /**
+     * Gets the path components of the neighboring cells connected to a path component of the board.
+     * They are numbered {@code (row * width + col) * 2 + index}.
+     *
+     * @param row                     The row index.
+     * @param col                     The column index.
+     * @param index                   The index of the path component in its pipe.
+     * @param connectedPathComponents The array receiving the connected path components, of at least four entries.
+     * @return The number of connected path components.
+     */
+    public int getConnectedPathComponents(int row, int col, int index, int[] connectedPathComponents) {
+        return componentIndex.getConnectedPathComponents(row, col, index, connectedPathComponents);
     }
 
     /**
@@ -261,13 +283,20 @@ public class LevelModel {
      *
      * @param row The row index.
      * @param col The column index.
-     * @param element The board element to be set at the specified position.
+     * @param element The board element whose state is copied to the specified position.
+     * @return The cells whose visual state changed, including the cells recolored by the propagation.
      */
-    public void setElement(int row, int col, BoardElement element) {
+    public BoardChanges setElement(int row, int col, BoardElement element) {
     	undoStack.push(saveGameState());
-        board[row][col] = element;
-        propagateColor(element, row, col);
+    	BoardChanges changes = new BoardChanges(width);
+        BoardElement previous = undoStack.peek().getBoard().getElement(row, col);
+        board.setElement(row, col, element);
+        changes.add(row, col);
+        componentIndex.removeCell(row, col, previous, changes);
+        componentIndex.addCell(row, col, changes);
     	redoStack.clear();
+    	removeUnchangedCells(changes, undoStack.peek().getBoard());
+    	return changes;
     }
     
     /**
@@ -277,369 +306,153 @@ public class LevelModel {
      * @param col1 The column index of the first element.
      * @param row2 The row index of the second element.
      * @param col2 The column index of the second element.
+     * @return The cells whose visual state changed, including the cells recolored by the propagation.
      */
-    public void switchElements(int row1, int col1, int row2, int col2) {
-    	if (row1 == row2 && col1 == col2) return;
+    public BoardChanges switchElements(int row1, int col1, int row2, int col2) {
+    	BoardChanges changes = new BoardChanges(width);
+    	
+    	if (row1 == row2 && col1 == col2) return changes;
     	
     	BoardCell cell1 = (BoardCell) getElement(row1, col1);
     	BoardCell cell2 = (BoardCell) getElement(row2, col2);
     	
-    	if (cell1.isAttached() || cell2.isAttached()) return;
+    	if (cell1.isAttached() || cell2.isAttached()) return changes;
     	
     	undoStack.push(saveGameState());
-    	board[row1][col1] = cell2;
-    	board[row2][col2] = cell1;
-    	propagateColor(cell1, row2, col2);
-    	propagateColor(cell2, row1, col1);
+    	// The views of the saved board keep showing the cells as they were before the switch.
+    	cell1 = (BoardCell) undoStack.peek().getBoard().getElement(row1, col1);
+    	cell2 = (BoardCell) undoStack.peek().getBoard().getElement(row2, col2);
+    	changes.add(row1, col1);
+    	changes.add(row2, col2);
+    	board.setElement(row1, col1, cell2);
+    	componentIndex.removeCell(row1, col1, cell1, changes);
+    	board.setElement(row2, col2, cell1);
+    	componentIndex.removeCell(row2, col2, cell2, changes);
+    	componentIndex.addCell(row1, col1, changes);
+    	componentIndex.addCell(row2, col2, changes);
     	redoStack.clear();
+    	removeUnchangedCells(changes, undoStack.peek().getBoard());
+    	return changes;
     }
     
     /**
-     * Propagates the color through the connected pipe components starting from the placed element.
-     *
-     * @param placedElement The board element where the color propagation starts.
-     * @param row           The row index of the placed element.
-     * @param col           The column index of the placed element.
-     */
-    private void propagateColor(BoardElement placedElement, int row, int col) {
-        if (placedElement.getBoardElementType() != BoardElementType.CELL) {
-            return;
-        }
-        
-        BoardCell placedCell = (BoardCell) placedElement;
-        
-        if (placedCell.isEmpty()) {
-            int[][] neighborOffsets = {
-                {-1, 0}, {1, 0}, {0, -1}, {0, 1}
-            };
-
-            for (int[] offset : neighborOffsets) {
-                int newRow = row + offset[0];
-                int newCol = col + offset[1];
-                
-                if (isValidPosition(newRow, newCol)) {
-                    BoardElement neighbor = getElement(newRow, newCol);
-                    
-                    if (neighbor.getBoardElementType() == BoardElementType.CELL && !((BoardCell) neighbor).isSource()) {
-                        PathComponent pathComponent = (row == newRow) ?
-                            PathComponent.getPathComponents(PipeType.LINE, PathComponentColor.GRAY, 1).get(0) :
-                            PathComponent.getPathComponents(PipeType.LINE, PathComponentColor.GRAY, 0).get(0);
-
-                        Map<PathComponent, int[]> pathComponents = getConnectedPathComponents(pathComponent, row, col);
-                        
-                        removeSources(pathComponents);
-                        updateColorBasedOnConnectedColors(pathComponents);
-                    }
-                }
-            }
-        } else {
-        	Map<PathComponent, int[]> pathComponents = placedCell.getPipe().getPathComponents().stream()
-        	        .collect(Collectors.toMap(pc -> pc, pc -> new int[] {row, col}));
-        	updateColorBasedOnConnectedColors(pathComponents);
-        }
-    }
-    
-    /**
-     * Removes source pipe components from the provided map of connected path components.
-     *
-     * @param pathComponents A map of connected path components with their coordinates.
-     */
-    private void removeSources(Map<PathComponent, int[]> pathComponents) {
-        Iterator<Map.Entry<PathComponent, int[]>> iterator = pathComponents.entrySet().iterator();
-        
-        while (iterator.hasNext()) {
-            Map.Entry<PathComponent, int[]> entry = iterator.next();
-            int[] coordinates = entry.getValue();
-
-            int neighborRow = coordinates[0];
-            int neighborCol = coordinates[1];
-
-            BoardCell connectedNeighbor = (BoardCell) getElement(neighborRow, neighborCol);
-
-            if (connectedNeighbor.isSource()) {
-                iterator.remove();
-            }
-        }
-    }
-    
-    /**
-     * Updates the color of connected path components based on the colors of their neighbors.
+     * Removes from the changes the cells which ended up in the same visual state as before the operation,
+     * for instance when a cell was recolored several times or when two identical pipes were switched.
+     * The previous state of the remaining cells is recorded in the changes.
      *
-     * @param pathComponents A map of connected path components with their coordinates.
+     * @param boardChanges  The cells touched by the operation.
+     * @param previousBoard The game board before the operation.
      */
-    private void updateColorBasedOnConnectedColors(Map<PathComponent, int[]> pathComponents) {
-        for (Map.Entry<PathComponent, int[]> entry : pathComponents.entrySet()) {
-            PathComponent pathComponent = entry.getKey();
-            int[] coordinates = entry.getValue();
+    private void removeUnchangedCells(BoardChanges boardChanges, BoardStore previousBoard) {
+        for (int[] cell : boardChanges.getCells()) {
+            int index = board.getIndex(cell[0], cell[1]);
             
-            int row = coordinates[0];
-            int col = coordinates[1];
-
-            Set<PathComponentColor> connectedColors = new HashSet<>();
-            Set<PathComponent> visited = new HashSet<>();
-            getConnectedColors(visited, connectedColors, pathComponent, row, col);
-
-            PathComponentColor newColor;
-
-            if (connectedColors.isEmpty()) {
-                newColor = PathComponentColor.GRAY;
-            } else if (connectedColors.size() == 1) {
-                newColor = connectedColors.iterator().next();
+            if (board.hasSameState(index, previousBoard, index)) {
+                boardChanges.remove(cell[0], cell[1]);
             } else {
-                newColor = PathComponentColor.DARK_GRAY;
-            }
-            
-            visited.clear();
-            
-            updateColor(visited, pathComponent, newColor, coordinates[0], coordinates[1]);
-        }
-    }
-    
-    /**
-     * Recursively collects connected colors for a given path component.
-     *
-     * @param visited         A set of visited path components.
-     * @param connectedColors A set of connected colors.
-     * @param currentPathComponent The current path component being analyzed.
-     * @param currentRow      The row index of the current path component.
-     * @param currentCol      The column index of the current path component.
-     */
-    private void getConnectedColors(
-    		Set<PathComponent> visited,
-    		Set<PathComponentColor> connectedColors,
-    		PathComponent currentPathComponent,
-    		int currentRow,
-    		int currentCol
-    ) {
-		if (visited.contains(currentPathComponent)) {
-			return;
-		}
-		
-		visited.add(currentPathComponent);
-    	
-        Map<PathComponent, int[]> connectedPathComponents = getConnectedPathComponents(currentPathComponent, currentRow, currentCol);
-
-        for (Map.Entry<PathComponent, int[]> entry : connectedPathComponents.entrySet()) {
-            PathComponent pathComponent = entry.getKey();
-            int[] coordinates = entry.getValue();
-
-            int neighborRow = coordinates[0];
-            int neighborCol = coordinates[1];
-
-            BoardCell connectedNeighbor = (BoardCell) getElement(neighborRow, neighborCol);
-
-            if (connectedNeighbor.isSource()) {
-            	PathComponent connectedNeighBorPathComponent = connectedNeighbor.getPipe().getPathComponentAt(0);
-            	connectedColors.add(connectedNeighBorPathComponent.getColor());
-            	visited.add(connectedNeighBorPathComponent);
-            } else {
-            	getConnectedColors(visited, connectedColors, pathComponent, neighborRow, neighborCol);
-            }
-        }
-	}
-    
-    /**
-     * Updates the color of a path component and propagates the change to connected path components.
-     *
-     * @param visited       A set of visited path components.
-     * @param currentPathComponent The current path component to update.
-     * @param color         The new color for the path component.
-     * @param currentRow    The row index of the current path component.
-     * @param currentCol    The column index of the current path component.
-     */
-    private void updateColor(Set<PathComponent> visited, PathComponent currentPathComponent, PathComponentColor color, int currentRow, int currentCol) {
-        if (visited.contains(currentPathComponent)) {
-            return;
-        }
-
-        visited.add(currentPathComponent);
-        currentPathComponent.setColor(color);
-
-        BoardCell currentCell = (BoardCell) getElement(currentRow, currentCol);
-        currentCell.getPipe().updateImage();
-        currentCell.updateImage();
-
-        Map<PathComponent, int[]> connectedPathComponents = getConnectedPathComponents(currentPathComponent, currentRow, currentCol);
-        
-        for (Map.Entry<PathComponent, int[]> entry : connectedPathComponents.entrySet()) {
-            PathComponent pathComponent = entry.getKey();
-            int[] coordinates = entry.getValue();
-
-            int neighborRow = coordinates[0];
-            int neighborCol = coordinates[1];
-
-            BoardCell connectedNeighbor = (BoardCell) getElement(neighborRow, neighborCol);
-
-            if (!connectedNeighbor.isSource()) {
-                updateColor(visited, pathComponent, color, neighborRow, neighborCol);
-            }
-        }
-    }
-    
-    /**
-     * Retrieves a map of connected path components for a given path component.
-     *
-     * @param currentPathComponent The path component for which to find connected path components.
-     * @param currentRow    The row index of the current path component.
-     * @param currentCol    The column index of the current path component.
-     * @return A map of connected path components with their coordinates.
-     */
-    private Map<PathComponent, int[]> getConnectedPathComponents(PathComponent currentPathComponent, int currentRow, int currentCol) {
-        Map<PathComponent, int[]> connectedPathComponents = new HashMap<>();
-        int[][] neighborOffsets = {
-            {-1, 0}, {1, 0}, {0, -1}, {0, 1}
-        };
-
-        for (int[] offset : neighborOffsets) {
-            int newRow = currentRow + offset[0];
-            int newCol = currentCol + offset[1];
-
-            if (isValidPosition(newRow, newCol)) {
-                BoardElement neighbor = getElement(newRow, newCol);
-
-                if (neighbor.getBoardElementType() == BoardElementType.CELL) {
-                    BoardCell neighborCell = (BoardCell) neighbor;
-
-                    if (!neighborCell.isEmpty()) {
-                        List<PathComponent> neighborPathComponents = neighborCell.getPipe().getPathComponents();
-
-                        for (PathComponent neighborPathComponent : neighborPathComponents) {
-                            if (areConnectedNeighbors(currentRow, currentCol, newRow, newCol, currentPathComponent, neighborPathComponent)) {
-                                connectedPathComponents.put(neighborPathComponent, new int[] {newRow, newCol});
-                            }
-                        }
-                    }
-                }
-            }
-        }
-
-        return connectedPathComponents;
-    }
-
-    /**
-     * Checks if a row and column pair represents a valid position on the game board.
-     *
-     * @param row The row index to check.
-     * @param col The column index to check.
-     * @return True if the position is valid; otherwise, false.
-     */
-    private boolean isValidPosition(int row, int col) {
-        return row >= 0 && row < height && col >= 0 && col < width;
-    }
-
-    /**
-     * Determines whether two path components are connected neighbors.
-     *
-     * @param currentRow    The row index of the current path component.
-     * @param currentCol    The column index of the current path component.
-     * @param newRow        The row index of the neighboring path component.
-     * @param newCol        The column index of the neighboring path component.
-     * @param currentPathComponent The current path component.
-     * @param neighbor       The neighboring path component.
-     * @return True if the components are connected neighbors; otherwise, false.
-     */
-    private boolean areConnectedNeighbors(int currentRow, int currentCol, int newRow, int newCol, PathComponent currentPathComponent, PathComponent neighbor) {
-        return ((currentRow == newRow && Math.abs(currentCol - newCol) == 1) ||
-               (currentCol == newCol && Math.abs(currentRow - newRow) == 1)) &&
-               currentPathComponent.isConnectedTo(neighbor, getRelativePosition(currentRow, currentCol, newRow, newCol));
-    }
-
-    /**
-     * Determines the relative position of a neighboring cell with respect to the current cell.
-     *
-     * @param currentRow The row index of the current cell.
-     * @param currentCol The column index of the current cell.
-     * @param newRow     The row index of the neighboring cell.
-     * @param newCol     The column index of the neighboring cell.
-     * @return The relative position (e.g., TOP, BOTTOM, LEFT, RIGHT) of the neighboring cell.
-     */
-    private Position getRelativePosition(int currentRow, int currentCol, int newRow, int newCol) {
-        if (currentRow == newRow) {
-            if (currentCol < newCol) {
-                return Position.RIGHT;
-            } else {
-                return Position.LEFT;
-            }
-        } else {
-            if (currentRow < newRow) {
-                return Position.BOTTOM;
-            } else {
-                return Position.TOP;
+                boardChanges.setPreviousElement(cell[0], cell[1], previousBoard.getElement(cell[0], cell[1]).deepCopy());
             }
         }
     }
     
     /**
      * Resets the level to its initial state.
+     *
+     * @return The cells whose visual state changed.
      */
-    public void resetLevel() {
+    public BoardChanges resetLevel() {
+    	BoardStore previousBoard = board;
     	stock = new PipeStock();
         loadLevelFromFile(levelFile);
         undoStack.clear();
         redoStack.clear();
+        return getChangesFrom(previousBoard);
     }
     
     /**
      * Undoes the last action in the game.
+     *
+     * @return The cells whose visual state changed.
      */
-    public void performUndo() {
+    public BoardChanges performUndo() {
+        BoardStore previousBoard = board;
+        
         if (!undoStack.isEmpty()) {
             redoStack.push(saveGameState());
             GameState previousState = undoStack.pop();
             restoreGameState(previousState);
         }
+        
+        return getChangesFrom(previousBoard);
     }
 
     /**
      * Redoes the last undone action in the game.
+     *
+     * @return The cells whose visual state changed.
      */
-    public void performRedo() {
+    public BoardChanges performRedo() {
+        BoardStore previousBoard = board;
+        
         if (!redoStack.isEmpty()) {
             undoStack.push(saveGameState());
             GameState nextState = redoStack.pop();
             restoreGameState(nextState);
         }
+        
+        return getChangesFrom(previousBoard);
+    }
+    
+    /**
+     * Compares the current game board with a previous one and collects the cells whose visual state differs,
+     * along with their previous state.
+     *
+     * @param previousBoard The game board before the operation.
+     * @return The cells whose visual state changed.
+     */
+    private BoardChanges getChangesFrom(BoardStore previousBoard) {
+        BoardChanges boardChanges = new BoardChanges(width);
+        
+        if (previousBoard == board) return boardChanges;
+        
+        boolean sameSize = previousBoard.getHeight() == height && previousBoard.getWidth() == width;
+        
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                int index = board.getIndex(row, col);
+                
+                if (!sameSize || !board.hasSameState(index, previousBoard, index)) {
+                    BoardElement previous = sameSize ? previousBoard.getElement(row, col) : null;
+                    
+                    boardChanges.add(row, col);
+                    if (previous != null) boardChanges.setPreviousElement(row, col, previous.deepCopy());
+                }
+            }
+        }
+        
+        return boardChanges;
     }
 
     /**
-     * Saves the current game state, including a deep copy of the game board and the pipe stock.
+     * Saves the current game state, including a copy of the arrays of the game board and the pipe stock.
      *
      * @return A GameState object representing the saved game state.
      */
     private GameState saveGameState() {
-        return new GameState(deepCopyBoard(board), deepCopyPipeStock(stock));
+        return new GameState(board.deepCopy(), deepCopyPipeStock(stock));
     }
 
     /**
      * Restores the game state from a provided GameState object, replacing the current board and pipe stock.
+     * The pipes of the restored board are given the color of their network.
      *
      * @param gameState The GameState object to restore the game state from.
      */
     private void restoreGameState(GameState gameState) {
         board = gameState.getBoard();
         stock = gameState.getPipeStock();
-    }
-    
-    /**
-     * Creates a deep copy of the game board, preserving the state of each board element.
-     *
-     * @param originalBoard The original game board to be deep-copied.
-     * @return A new BoardElement array representing the deep copy of the game board.
-     */
-    private BoardElement[][] deepCopyBoard(BoardElement[][] originalBoard) {
-        int height = originalBoard.length;
-        int width = originalBoard[0].length;
-        BoardElement[][] newBoard = new BoardElement[height][width];
-
-        for (int row = 0; row < height; row++) {
-            for (int col = 0; col < width; col++) {
-                if (originalBoard[row][col] != null) {
-                    newBoard[row][col] = originalBoard[row][col].deepCopy(); 
-                }
-            }
-        }
-
-        return newBoard;
+        componentIndex.rebuild(board);
+        componentIndex.recolorAll(new BoardChanges(width));
     }
     
     /**
@@ -1,7 +1,7 @@
 package model;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
@@ -12,41 +12,80 @@ import model.enumeration.Position;
 
 /**
  * The `PathComponent` class represents a component of a pipe with specific directions and color.
+ * The directions are stored as a 4-bit port mask, whose bit i is set when the component opens towards the
+ * direction of ordinal i, and the masks of every pipe type and rotation are precomputed once.
+ * A path component is a view of its pipe in a board store, from which its ports are read and to which
+ * its color is written.
  *
  * @author hamza-okutucu
  */
 public class PathComponent {
     
-    private Set<Direction> directions;
-    private PathComponentColor color;
+    /**
+     * The port masks of the path components of each pipe type, indexed by pipe type ordinal and rotation.
+     */
+    private static final int[][][] PORT_TEMPLATES = createPortTemplates();
+    
+    private BoardStore store;
+    private int index;
+    private int component;
 
     /**
-     * Private constructor to create a new `PathComponent` with given directions and color.
+     * Constructs a new `PathComponent` viewing a path component of the pipe at a position of a board store.
      *
-     * @param directions The set of directions for this component.
-     * @param color The color of this component.
+     * @param store     The board store holding the pipe.
+     * @param index     The index of the position of the pipe in the store.
+     * @param component The index of the path component in its pipe.
      */
-    private PathComponent(Set<Direction> directions, PathComponentColor color) {
-      this.directions = directions;
-      this.color = color;
+    PathComponent(BoardStore store, int index, int component) {
+      this.store = store;
+      this.index = index;
+      this.component = component;
     }
     
     /**
-     * Constructs a new `PathComponent` by copying another `PathComponent`.
+     * Constructs a new `PathComponent` by copying another `PathComponent`, along with its pipe.
      *
      * @param pathComponent The `PathComponent` to copy.
      */
     public PathComponent(PathComponent pathComponent) {
-        this.directions = new HashSet<>(pathComponent.directions);
-        this.color = pathComponent.color;
+        this.store = new BoardStore(1, 1);
+        this.index = 0;
+        this.component = pathComponent.component;
+        store.copy(pathComponent.store, pathComponent.index, 0);
+    }
+
+    /**
+     * Gets the port mask of this path component.
+     *
+     * @return The port mask, whose bit i is set when the component opens towards the direction of ordinal i.
+     */
+    public int getPorts() {
+      return store.getPorts(index, component);
+    }
+
+    /**
+     * Checks whether this path component opens towards a direction.
+     *
+     * @param direction The direction to check.
+     * @return true if the component has a port in this direction, otherwise false.
+     */
+    public boolean hasPort(Direction direction) {
+      return (getPorts() & (1 << direction.ordinal())) != 0;
     }
 
     /**
      * Gets the directions of this path component.
      *
-     * @return The set of directions for this path component.
+     * @return A new set of the directions for this path component.
      */
     public Set<Direction> getDirections() {
+      Set<Direction> directions = EnumSet.noneOf(Direction.class);
+      
+      for (Direction direction : Direction.values()) {
+          if (hasPort(direction)) directions.add(direction);
+      }
+      
       return directions;
     }
 
@@ -56,7 +95,7 @@ public class PathComponent {
      * @return The color of this path component.
      */
     public PathComponentColor getColor() {
-      return color;
+      return store.getColor(index, component);
     }
 
     /**
@@ -65,105 +104,106 @@ public class PathComponent {
      * @param color The new color for this path component.
      */
     public void setColor(PathComponentColor color) {
-      this.color = color;
+      store.setColor(index, component, color);
     }
     
     /**
-     * Retrieves a list of path components based on the pipe type, color, and number of rotations.
+     * Rotates a port mask clockwise.
      *
-     * @param type The type of the pipe.
-     * @param color The color of the path component.
+     * @param ports     The port mask.
      * @param rotations The number of clockwise rotations.
-     * @return A list of path components.
+     * @return The rotated port mask.
      */
-    public static List<PathComponent> getPathComponents(PipeType type, PathComponentColor color, int rotations) {
+    public static int rotatePorts(int ports, int rotations) {
         rotations = (rotations % 4 + 4) % 4;
+        return ((ports << rotations) | (ports >>> (4 - rotations))) & 0xF;
+    }
     
-        List<PathComponent> pathComponents = new ArrayList<>();
-        Set<Direction> componentDirections = new HashSet<>();
-
-        if (type.equals(PipeType.LINE)) {
-            if (rotations % 2 == 0) {
-                componentDirections.add(Direction.TOP);
-                componentDirections.add(Direction.BOTTOM);
-            } else {
-                componentDirections.add(Direction.LEFT);
-                componentDirections.add(Direction.RIGHT);
-            }
-            pathComponents.add(new PathComponent(componentDirections, color));
-        } else if (type.equals(PipeType.OVER)) {
-            Set<Direction> componentDirections2 = new HashSet<>();
-            if (rotations % 2 == 0) {
-                componentDirections.add(Direction.TOP);
-                componentDirections.add(Direction.BOTTOM);
-                componentDirections2.add(Direction.LEFT);
-                componentDirections2.add(Direction.RIGHT);
-            } else {
-                componentDirections.add(Direction.LEFT);
-                componentDirections.add(Direction.RIGHT);
-                componentDirections2.add(Direction.TOP);
-                componentDirections2.add(Direction.BOTTOM);
-            }
-            pathComponents.add(new PathComponent(componentDirections, color));
-            pathComponents.add(new PathComponent(componentDirections2, color));
-        } else if (type.equals(PipeType.FORK)) {
-            if (rotations == 0) {
-                componentDirections.add(Direction.TOP);
-                componentDirections.add(Direction.RIGHT);
-                componentDirections.add(Direction.BOTTOM);
-            } else if (rotations == 1) {
-                componentDirections.add(Direction.RIGHT);
-                componentDirections.add(Direction.BOTTOM);
-                componentDirections.add(Direction.LEFT);
-            } else if (rotations == 2) {
-                componentDirections.add(Direction.BOTTOM);
-                componentDirections.add(Direction.LEFT);
-                componentDirections.add(Direction.TOP);
-            } else if (rotations == 3) {
-                componentDirections.add(Direction.LEFT);
-                componentDirections.add(Direction.TOP);
-                componentDirections.add(Direction.RIGHT);
-            }
-            pathComponents.add(new PathComponent(componentDirections, color));
-        } else if (type.equals(PipeType.CROSS)) {
-            componentDirections.add(Direction.TOP);
-            componentDirections.add(Direction.RIGHT);
-            componentDirections.add(Direction.BOTTOM);
-            componentDirections.add(Direction.LEFT);
-            pathComponents.add(new PathComponent(componentDirections, color));
-        } else if (type.equals(PipeType.TURN)) {
-            if (rotations == 0) {
-                componentDirections.add(Direction.TOP);
-                componentDirections.add(Direction.RIGHT);
-            } else if (rotations == 1) {
-                componentDirections.add(Direction.RIGHT);
-                componentDirections.add(Direction.BOTTOM);
-            } else if (rotations == 2) {
-                componentDirections.add(Direction.BOTTOM);
-                componentDirections.add(Direction.LEFT);
-            } else if (rotations == 3) {
-                componentDirections.add(Direction.LEFT);
-                componentDirections.add(Direction.TOP);
+    /**
+     * Creates the port masks of the path components of each pipe type in each rotation, from the masks
+     * of the pipe types without rotation.
+     *
+     * @return The port masks indexed by pipe type ordinal and rotation.
+     */
+    private static int[][][] createPortTemplates() {
+        int top = 1 << Direction.TOP.ordinal();
+        int right = 1 << Direction.RIGHT.ordinal();
+        int bottom = 1 << Direction.BOTTOM.ordinal();
+        int left = 1 << Direction.LEFT.ordinal();
+        
+        int[][][] templates = new int[PipeType.values().length][4][];
+        
+        for (PipeType type : PipeType.values()) {
+            int[] baseMasks;
+            
+            switch (type) {
+                case SOURCE:
+                    baseMasks = new int[] {top};
+                    break;
+                case LINE:
+                    baseMasks = new int[] {top | bottom};
+                    break;
+                case OVER:
+                    baseMasks = new int[] {top | bottom, left | right};
+                    break;
+                case TURN:
+                    baseMasks = new int[] {top | right};
+                    break;
+                case FORK:
+                    baseMasks = new int[] {top | right | bottom};
+                    break;
+                case CROSS:
+                    baseMasks = new int[] {top | right | bottom | left};
+                    break;
+                default:
+                    baseMasks = new int[0];
             }
-            pathComponents.add(new PathComponent(componentDirections, color));
-        } else if (type.equals(PipeType.EMPTY)) {
-            return pathComponents;
-        } else if (type.equals(PipeType.SOURCE)) {
-            if (rotations == 0) {
-                componentDirections.add(Direction.TOP);
-            } else if (rotations == 1) {
-                componentDirections.add(Direction.RIGHT);
-            } else if (rotations == 2) {
-                componentDirections.add(Direction.BOTTOM);
-            } else if (rotations == 3) {
-                componentDirections.add(Direction.LEFT);
+            
+            for (int rotations = 0; rotations < 4; rotations++) {
+                int[] masks = new int[baseMasks.length];
+                
+                for (int i = 0; i < baseMasks.length; i++) {
+                    masks[i] = rotatePorts(baseMasks[i], rotations);
+                }
+                
+                templates[type.ordinal()][rotations] = masks;
             }
-            pathComponents.add(new PathComponent(componentDirections, color));
-        } else {
+        }
+        
+        return templates;
+    }
+    
+    /**
+     * Gets the port masks of the path components of a pipe.
+     *
+     * @param type      The type of the pipe.
+     * @param rotations The number of clockwise rotations.
+     * @return The port masks of the path components, which must not be modified.
+     */
+    static int[] getPortTemplates(PipeType type, int rotations) {
+        if (type == null) {
             handleInvalidPipeType(type);
+            return new int[0];
         }
+        
+        return PORT_TEMPLATES[type.ordinal()][(rotations % 4 + 4) % 4];
+    }
     
-        return pathComponents;
+    /**
+     * Retrieves a list of path components based on the pipe type, color, and number of rotations.
+     *
+     * @param type The type of the pipe.
+     * @param color The color of the path component.
+     * @param rotations The number of clockwise rotations.
+     * @return A list of path components, sharing a pipe of their own.
+     */
+    public static List<PathComponent> getPathComponents(PipeType type, PathComponentColor color, int rotations) {
+        if (type == null) {
+            handleInvalidPipeType(type);
+            return new ArrayList<>();
+        }
+        
+        return new Pipe(type, color, rotations).getPathComponents();
     }
     
     /**
@@ -187,20 +227,14 @@ public class PathComponent {
      * @return `true` if there is a connection, otherwise `false`.
      */
     public boolean isConnectedTo(PathComponent pathComponent, Position position) {
-        switch(position) {
-            case TOP:
-                return pathComponent.getDirections().contains(Direction.BOTTOM) && this.directions.contains(Direction.TOP);
-            case RIGHT:
-                return pathComponent.getDirections().contains(Direction.LEFT) && this.directions.contains(Direction.RIGHT);
-            case BOTTOM:
-                return pathComponent.getDirections().contains(Direction.TOP) && this.directions.contains(Direction.BOTTOM);
-            case LEFT:
-                return pathComponent.getDirections().contains(Direction.RIGHT) && this.directions.contains(Direction.LEFT);
-            default:
-                handleInvalidPosition(position);
+        if (position == null) {
+            handleInvalidPosition(position);
+            return false;
         }
-
-        return false;
+        
+        int port = 1 << position.ordinal();
+        
+        return (getPorts() & rotatePorts(pathComponent.getPorts(), 2) & port) != 0;
     }
     
     /**
@@ -1,24 +1,21 @@
 package model;
 
-import java.awt.Image;
 import java.util.ArrayList;
 import java.util.List;
 
 import model.enumeration.PathComponentColor;
 import model.enumeration.PipeType;
-import util.AssetsUtil;
 
 /**
  * Represents a pipe element in the game board.
+ * The pipe is a view of the cell holding it in a board store, or of a store of its own when created outside of a cell.
  *
  * @author hamza-okutucu
  */
 public class Pipe {
     
-    private PipeType type;
-    private int rotations;
-    private List<PathComponent> pathComponents;
-    private Image image;
+    private BoardStore store;
+    private int index;
     
     /**
      * Constructs a new Pipe instance with the specified type, color, and rotations.
@@ -28,10 +25,9 @@ public class Pipe {
      * @param rotations The number of clockwise rotations for the pipe.
      */
     public Pipe(PipeType type, PathComponentColor color, int rotations) {
-        this.type = type;
-        this.rotations = rotations;
-        pathComponents = PathComponent.getPathComponents(type, color, rotations);
-        updateImage();
+        this.store = new BoardStore(1, 1);
+        this.index = 0;
+        store.setCell(0, 0, type, color, rotations, false);
     }
     
     /**
@@ -40,13 +36,20 @@ public class Pipe {
      * @param pipe The Pipe instance to copy.
      */
     public Pipe(Pipe pipe) {
-        this.type = pipe.type;
-        this.rotations = pipe.rotations;
-        this.pathComponents = new ArrayList<>();
-        for (PathComponent component : pipe.pathComponents) {
-            this.pathComponents.add(new PathComponent(component));
-        }
-        updateImage();
+        this.store = new BoardStore(1, 1);
+        this.index = 0;
+        store.copy(pipe.store, pipe.index, 0);
+    }
+
+    /**
+     * Constructs a new Pipe viewing the cell at a position of a board store.
+     *
+     * @param store The board store holding the cell.
+     * @param index The index of the position of the cell in the store.
+     */
+    Pipe(BoardStore store, int index) {
+        this.store = store;
+        this.index = index;
     }
 
     /**
@@ -55,7 +58,7 @@ public class Pipe {
      * @return The type of the pipe.
      */
     public PipeType getType() {
-        return type;
+        return store.getPipeType(index);
     }
 
     /**
@@ -64,132 +67,68 @@ public class Pipe {
      * @return The number of rotations.
      */
     public int getRotations() {
-        return rotations;
+        return store.getRotations(index);
     }
 
     /**
      * Gets the list of path components that make up the pipe.
      *
-     * @return The list of path components.
+     * @return A new list of views of the path components.
      */
     public List<PathComponent> getPathComponents() {
+        int pathComponentCount = store.getPathComponentCount(index);
+        List<PathComponent> pathComponents = new ArrayList<>(pathComponentCount);
+        
+        for (int component = 0; component < pathComponentCount; component++) {
+            pathComponents.add(new PathComponent(store, index, component));
+        }
+        
         return pathComponents;
     }
 
     /**
-     * Gets the path component at the specified index.
+     * Gets the number of path components that make up the pipe.
      *
-     * @param index The index of the path component.
-     * @return The path component at the specified index.
+     * @return The number of path components.
      */
-    public PathComponent getPathComponentAt(int index) {
-        return pathComponents.get(index);
+    public int getPathComponentCount() {
+        return store.getPathComponentCount(index);
     }
-    
+
     /**
-     * Gets the image representation of the pipe.
+     * Gets the path component at the specified index.
      *
-     * @return The image of the pipe.
-     */
-    public Image getImage() {
-    	return image;
-    }
-    
-    /**
-     * Updates the image representation of the pipe based on its type and path components.
+     * @param index The index of the path component.
+     * @return A view of the path component at the specified index.
      */
-    public void updateImage() {
-        Image emptyImage = AssetsUtil.extractPipeImage(6, 0);
-
-        switch (type) {
-            case LINE:
-            case FORK:
-            case CROSS:
-            case TURN:
-                updateImageForStandardPipe();
-                break;
-            case OVER:
-                updateImageForOverPipe();
-                break;
-            case SOURCE:
-                updateImageForSourcePipe();
-                break;
-            case EMPTY:
-                image = emptyImage;
-                break;
-            default:
-                handleInvalidPipeType();
+    public PathComponent getPathComponentAt(int index) {
+        if (index < 0 || index >= store.getPathComponentCount(this.index)) {
+            throw new IndexOutOfBoundsException(index);
         }
-    }
-    
-    /**
-     * Updates the image representation for a standard pipe.
-     * Determines the pipe's image based on its type and color, and applies rotations.
-     */
-    private void updateImageForStandardPipe() {
-        int pipeTypeColumn = type.ordinal();
-        int pipeColorLine = getPathComponentAt(0).getColor().ordinal();
         
-        Image pipeImage = AssetsUtil.extractPipeImage(pipeColorLine, pipeTypeColumn);
-
-        image = rotatePipeImage(pipeImage);
+        return new PathComponent(store, this.index, index);
     }
     
     /**
-     * Updates the image representation for an over pipe.
-     * Combines vertical and horizontal images to represent an over pipe.
-     */
-    private void updateImageForOverPipe() {
-        Image verticalLineImage = getRotatedPipeImage(1, getPathComponentAt(0));
-        Image horizontalLineImage = getRotatedPipeImage(2, getPathComponentAt(1));
-
-        image = AssetsUtil.combineImages(verticalLineImage, horizontalLineImage);
-    }
-    
-    /**
-     * Updates the image representation for a source pipe.
-     * Represents a source pipe with a rotated image.
-     */
-    private void updateImageForSourcePipe() {
-    	image = getRotatedPipeImage(type.ordinal(), getPathComponentAt(0));
-    }
-    
-    /**
-     * Retrieves a rotated pipe image based on type and path component color.
+     * Checks whether another pipe has the same type, rotations and path component colors.
      *
-     * @param type      The type of pipe for image selection.
-     * @param component The path component providing color information.
-     * @return The rotated image representing the pipe.
+     * @param pipe The pipe to compare with.
+     * @return true if both pipes have the same visual state, otherwise false.
      */
-    private Image getRotatedPipeImage(int type, PathComponent component) {
-        int colorLine = component.getColor().ordinal();
-        Image pipeImage = AssetsUtil.extractPipeImage(colorLine, type);
-
-        pipeImage = rotatePipeImage(pipeImage);
-
-        return pipeImage;
-    }
-    
-    /**
-     * Rotates an image based on the number of clockwise rotations.
-     *
-     * @param image The image to be rotated.
-     * @return The rotated image.
-     */
-    private Image rotatePipeImage(Image image) {
-        return AssetsUtil.rotateImage(image, rotations * 90);
-    }
-    
-    /**
-     * Handles an invalid pipe type by throwing an exception.
-     * This method is used for error handling when an unsupported pipe type is encountered.
-     */
-    private void handleInvalidPipeType() {
-        try {
-            throw new Exception("Le type de tuyau n'existe pas : " + type);
-        } catch (Exception e) {
-            e.printStackTrace();
+    public boolean hasSameStateAs(Pipe pipe) {
+        if (getType() != pipe.getType() || getRotations() != pipe.getRotations()) {
+            return false;
+        }
+        
+        int pathComponentCount = store.getPathComponentCount(index);
+        
+        for (int component = 0; component < pathComponentCount; component++) {
+            if (store.getColor(index, component) != pipe.store.getColor(pipe.index, component)) {
+                return false;
+            }
         }
+        
+        return true;
     }
     
     /**
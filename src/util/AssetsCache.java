@@ -0,0 +1,120 @@
+package util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Utility class for the on-disk cache of derived assets, such as rasterized tiles.
+ * Cached files are named after a hash of the asset they derive from, so that they are
+ * ignored as soon as the asset changes.
+ *
+ * @author hamza-okutucu
+ */
+public class AssetsCache {
+
+    /**
+     * The system property that overrides the location of the cache directory.
+     */
+    public static final String CACHE_DIRECTORY_PROPERTY = "plumber.cache.dir";
+
+    /**
+     * Gets the cache directory, creating it if needed.
+     *
+     * @return The cache directory, or null if it cannot be created.
+     */
+    public static File getCacheDirectory() {
+        String path = System.getProperty(CACHE_DIRECTORY_PROPERTY);
+        File cacheDirectory = path != null
+                ? new File(path)
+                : new File(System.getProperty("user.home"), ".plumber" + File.separator + "cache");
+
+        if (!cacheDirectory.isDirectory() && !cacheDirectory.mkdirs()) {
+            return null;
+        }
+
+        return cacheDirectory;
+    }
+
+    /**
+     * Gets a file of the cache directory.
+     *
+     * @param name The name of the cached file.
+     * @return The cached file, which may not exist yet, or null if there is no cache directory.
+     */
+    public static File getCacheFile(String name) {
+        File cacheDirectory = getCacheDirectory();
+        return cacheDirectory != null ? new File(cacheDirectory, name) : null;
+    }
+
+    /**
+     * Computes a short hash of the content of a file.
+     *
+     * @param file The file to hash.
+     * @return The first 16 hexadecimal digits of the SHA-256 hash of the file.
+     * @throws IOException If the file cannot be read.
+     */
+    public static String hashFile(File file) throws IOException {
+        return hashBytes(Files.readAllBytes(file.toPath()));
+    }
+
+    /**
+     * Computes a short hash of an array of bytes.
+     *
+     * @param bytes The bytes to hash.
+     * @return The first 16 hexadecimal digits of the SHA-256 hash of the bytes.
+     */
+    public static String hashBytes(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder hash = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                hash.append(String.format("%02x", digest[i]));
+            }
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Writes a file of the cache atomically, so that a concurrent reader never sees a partial file.
+     *
+     * @param file    The cached file.
+     * @param content The content of the file.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writeAtomically(File file, byte[] content) throws IOException {
+        File temporaryFile = getTemporaryFile(file);
+        Files.write(temporaryFile.toPath(), content);
+
+        replaceAtomically(temporaryFile, file);
+    }
+
+    /**
+     * Gets the temporary file a file of the cache is written to before it replaces the file.
+     * The name of the temporary file is specific to the current process.
+     *
+     * @param file The cached file.
+     * @return The temporary file.
+     */
+    public static File getTemporaryFile(File file) {
+        return new File(file.getParentFile(), file.getName() + ".tmp" + ProcessHandle.current().pid());
+    }
+
+    /**
+     * Replaces a file of the cache by its completely written temporary file.
+     * The temporary file is deleted if it cannot replace the file.
+     *
+     * @param temporaryFile The temporary file, as given by {@link #getTemporaryFile(File)}.
+     * @param file          The cached file.
+     * @throws IOException If the temporary file cannot be deleted.
+     */
+    public static void replaceAtomically(File temporaryFile, File file) throws IOException {
+        if (!temporaryFile.renameTo(file)) {
+            Files.deleteIfExists(temporaryFile.toPath());
+        }
+    }
+}
@@ -1,14 +1,12 @@
 package util;
 
-import java.awt.Font;
 import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
 import java.io.File;
 import java.io.FilenameFilter;
-import java.io.IOException;
-
-import javax.imageio.ImageIO;
 
 /**
  * Utility class for handling game assets, including image extraction, manipulation, and file operations.
@@ -27,6 +25,11 @@ public class AssetsUtil {
      */
     public static final String PIPES_FILE_PATH = ASSETS_DIRECTORY_PATH + "/pipes.gif";
     
+    /**
+     * The path to the vector version of the pipes image file within the assets directory.
+     */
+    public static final String VECTOR_PIPES_FILE_PATH = ASSETS_DIRECTORY_PATH + "/pipes.svg";
+    
     /**
      * The size (width and height) of a pipe image.
      */
@@ -60,28 +63,40 @@ public class AssetsUtil {
 
     /**
      * Extracts a pipe image from the "pipes.gif" image file.
+     * The sheet is decoded only once, the tiles are served from the shared {@link PipeAtlas}.
      *
      * @param line   The line (row) of the desired pipe image.
      * @param column The column of the desired pipe image.
      * @return The extracted pipe image.
      */
     public static Image extractPipeImage(int line, int column) {
-        File pipesFile = new File(PIPES_FILE_PATH);
-        BufferedImage pipesImage = null;
-        BufferedImage extractedPipe = null;
-
-        try {
-            pipesImage = ImageIO.read(pipesFile);
-
-            int x = PIPE_SIZE * column + PIPE_PADDING * column;
-            int y = PIPE_SIZE * line + PIPE_PADDING * line;
-
-            extractedPipe = pipesImage.getSubimage(x, y, PIPE_SIZE, PIPE_SIZE);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        return PipeAtlas.getInstance().getTile(line, column);
+    }
     
-        return extractedPipe;
+    /**
+     * Extracts a pipe image of the given size, scaled from the nearest atlas of the {@link PipeAtlas}.
+     *
+     * @param line   The line (row) of the desired pipe image.
+     * @param column The column of the desired pipe image.
+     * @param size   The width and height of the desired pipe image.
+     * @return The extracted pipe image.
+     */
+    public static Image extractPipeImage(int line, int column, int size) {
+        return PipeAtlas.getInstance(size).getTile(line, column);
+    }
+    
+    /**
+     * Extracts a pipe image of the given size, rotated clockwise by a number of quarter turns.
+     * The rotated variants are pre-rendered by the {@link PipeAtlas}.
+     *
+     * @param line         The line (row) of the desired pipe image.
+     * @param column       The column of the desired pipe image.
+     * @param size         The width and height of the desired pipe image.
+     * @param quarterTurns The number of clockwise quarter turns.
+     * @return The extracted pipe image.
+     */
+    public static Image extractPipeImage(int line, int column, int size, int quarterTurns) {
+        return PipeAtlas.getInstance(size).getTile(line, column, quarterTurns);
     }
     
     /**
@@ -110,6 +125,7 @@ public class AssetsUtil {
 
     /**
      * Rotates an image by a specified number of degrees.
+     * Multiples of 90 degrees are handled by an exact pixel remapping, other angles are interpolated.
      *
      * @param image  The image to rotate.
      * @param degree The number of degrees to rotate the image.
@@ -119,6 +135,10 @@ public class AssetsUtil {
         int width = image.getWidth(null);
         int height = image.getHeight(null);
 
+        if (degree % 90 == 0 && (width == height || degree % 180 == 0)) {
+            return rotateImageByQuarterTurns(image, degree / 90);
+        }
+
         BufferedImage initialImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
         Graphics2D initialImageGraphics = initialImage.createGraphics();
 
@@ -136,26 +156,77 @@ public class AssetsUtil {
     }
 
     /**
-     * Writes a number onto an image at a specified position.
+     * Rotates an image clockwise by a number of quarter turns, remapping the pixels directly.
+     * An odd number of quarter turns requires a square image.
      *
-     * @param image  The image to write the number on.
-     * @param number The number to write.
-     * @param x      The X-coordinate for the number.
-     * @param y      The Y-coordinate for the number.
-     * @return The image with the number written on it.
+     * @param image        The image to rotate.
+     * @param quarterTurns The number of clockwise quarter turns.
+     * @return The rotated image.
      */
-    public static Image writeNumberOnImage(Image image, int number, int x, int y) {
+    private static Image rotateImageByQuarterTurns(Image image, int quarterTurns) {
         int width = image.getWidth(null);
         int height = image.getHeight(null);
+        int[] source = getArgbPixels(image);
 
-        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D graphics = result.createGraphics();
+        BufferedImage rotatedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        int[] target = ((DataBufferInt) rotatedImage.getRaster().getDataBuffer()).getData();
+
+        switch ((quarterTurns % 4 + 4) % 4) {
+            case 0:
+                System.arraycopy(source, 0, target, 0, width * height);
+                break;
+            case 1:
+                for (int y = 0; y < height; y++) {
+                    int row = y * width;
+                    for (int x = 0; x < width; x++) {
+                        target[x * width + (width - 1 - y)] = source[row + x];
+                    }
+                }
+                break;
+            case 2:
+                for (int i = 0, last = width * height - 1; i <= last; i++) {
+                    target[last - i] = source[i];
+                }
+                break;
+            case 3:
+                for (int y = 0; y < height; y++) {
+                    int row = y * width;
+                    for (int x = 0; x < width; x++) {
+                        target[(width - 1 - x) * width + y] = source[row + x];
+                    }
+                }
+                break;
+        }
+
+        return rotatedImage;
+    }
+
+    /**
+     * Gets the pixels of an image in the ARGB format, reading the raster directly when possible.
+     *
+     * @param image The image to read.
+     * @return The pixels of the image, line by line.
+     */
+    private static int[] getArgbPixels(Image image) {
+        int width = image.getWidth(null);
+        int height = image.getHeight(null);
+
+        if (image instanceof BufferedImage) {
+            BufferedImage bufferedImage = (BufferedImage) image;
+            DataBuffer dataBuffer = bufferedImage.getRaster().getDataBuffer();
+
+            if (bufferedImage.getType() == BufferedImage.TYPE_INT_ARGB && dataBuffer instanceof DataBufferInt
+                    && dataBuffer.getOffset() == 0 && bufferedImage.getRaster().getParent() == null) {
+                return ((DataBufferInt) dataBuffer).getData();
+            }
+        }
+
+        BufferedImage argbImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = argbImage.createGraphics();
 
         graphics.drawImage(image, 0, 0, null);
-        graphics.setFont(new Font("Arial Black", Font.PLAIN, 20));
-        graphics.drawString(Integer.toString(number), x, y);
         graphics.dispose();
 
-        return result;
+        return ((DataBufferInt) argbImage.getRaster().getDataBuffer()).getData();
     }
 }
\ No newline at end of file
@@ -0,0 +1,564 @@
+package util;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Decoded sprite atlas of the "pipes.gif" sheet.
+ * Every tile is sliced up front into its own image along with its rotated variants, so that a lookup
+ * is a simple array access. The tiles are shared and must be treated as read-only by the callers.
+ * Atlases of a few other fixed tile sizes, and of the layout tile sizes the level window is fitted to, are
+ * rasterized from the "pipes.svg" vector sheet on a background thread, and the atlases of the remaining sizes
+ * scale each tile lazily from the nearest rendered atlas.
+ * Until a rendered atlas is ready, its tiles are scaled from the "pipes.gif" atlas instead.
+ * Each rendered atlas is stored on disk as a pre-rendered {@link TileAtlasFile}, keyed by the tile size and
+ * a hash of its source sheet, so that later launches only map the file instead of decoding the sheets.
+ * Once the layout tile sizes are known, the atlas files of other sizes or of previous versions of the sheets
+ * are deleted.
+ *
+ * @author hamza-okutucu
+ */
+public final class PipeAtlas {
+
+    /**
+     * The number of tile lines in the sheet.
+     */
+    public static final int LINES = 7;
+
+    /**
+     * The number of tile columns in the sheet.
+     */
+    public static final int COLUMNS = 6;
+
+    /**
+     * The number of rotations kept in memory for each tile.
+     */
+    private static final int ROTATIONS = 4;
+
+    /**
+     * The tile sizes of the atlases rendered from the sheets, in increasing order.
+     */
+    private static final int[] ATLAS_SIZES = {60, AssetsUtil.PIPE_SIZE, 240};
+
+    private static volatile int[] layoutSizes = {};
+
+    /**
+     * The maximum number of atlases of other tile sizes kept in memory.
+     */
+    private static final int MAX_SCALED_ATLASES = 8;
+
+    private static final Map<Integer, PipeAtlas> loadedAtlases = new ConcurrentHashMap<>();
+    private static final Set<Integer> pendingSizes = ConcurrentHashMap.newKeySet();
+    private static final List<Runnable> loadListeners = new CopyOnWriteArrayList<>();
+    private static final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "pipe-atlas");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private static final Map<Integer, PipeAtlas> scaledAtlases = new LinkedHashMap<Integer, PipeAtlas>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, PipeAtlas> eldest) {
+            return size() > MAX_SCALED_ATLASES;
+        }
+    };
+
+    private final int tileSize;
+    private final BufferedImage[] tiles;
+    private final PipeAtlas source;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    /**
+     * Lazily initialized holder of the shared atlas, decoded on first use.
+     */
+    private static class Holder {
+        private static final PipeAtlas INSTANCE = new PipeAtlas(AssetsUtil.PIPE_SIZE, loadTiles(AssetsUtil.PIPE_SIZE));
+    }
+
+    /**
+     * Lazily initialized holder of the parsed vector sheet and of its hash.
+     */
+    private static class VectorSheet {
+        private static final File FILE = new File(AssetsUtil.VECTOR_PIPES_FILE_PATH);
+        private static final String HASH = hash();
+        private static SvgRasterizer rasterizer;
+
+        private static String hash() {
+            try {
+                return AssetsCache.hashFile(FILE);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        private static synchronized SvgRasterizer getRasterizer() throws Exception {
+            if (rasterizer == null) {
+                rasterizer = new SvgRasterizer(FILE);
+            }
+            return rasterizer;
+        }
+    }
+
+    /**
+     * Lazily initialized holder of the hash of the raster sheet.
+     */
+    private static class RasterSheet {
+        private static final File FILE = new File(AssetsUtil.PIPES_FILE_PATH);
+        private static final String HASH = hash();
+
+        private static String hash() {
+            try {
+                return AssetsCache.hashFile(FILE);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Initializes an atlas from already sliced tiles.
+     *
+     * @param tileSize The width and height of the tiles.
+     * @param tiles    The tiles in every rotation, indexed by {@code (line * COLUMNS + column) * ROTATIONS + rotation}.
+     */
+    private PipeAtlas(int tileSize, BufferedImage[] tiles) {
+        this.tileSize = tileSize;
+        this.tiles = tiles;
+        this.source = null;
+        hits = new AtomicLong();
+        misses = new AtomicLong();
+    }
+
+    /**
+     * Initializes an atlas whose tiles are scaled from another atlas the first time they are requested.
+     *
+     * @param tileSize The width and height of the tiles.
+     * @param source   The atlas the tiles are scaled from.
+     */
+    private PipeAtlas(int tileSize, PipeAtlas source) {
+        this.tileSize = tileSize;
+        this.tiles = new BufferedImage[source.tiles.length];
+        this.source = source;
+        hits = new AtomicLong();
+        misses = new AtomicLong();
+    }
+
+    /**
+     * Gets the shared atlas, decoding the sheet the first time it is requested.
+     *
+     * @return The shared atlas.
+     */
+    public static PipeAtlas getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Gets the shared atlas of the given tile size.
+     * The atlas is the fixed atlas of this size, or an atlas scaling its tiles from the nearest fixed atlas.
+     * This never waits for the vector sheet to be rasterized, so it can be called from the event dispatch thread.
+     *
+     * @param tileSize The width and height of the tiles.
+     * @return The shared atlas of this tile size.
+     */
+    public static PipeAtlas getInstance(int tileSize) {
+        PipeAtlas source = getLoadedAtlas(getAtlasSize(tileSize));
+
+        if (source.tileSize == tileSize) {
+            return source;
+        }
+
+        synchronized (scaledAtlases) {
+            PipeAtlas atlas = scaledAtlases.get(tileSize);
+            if (atlas == null || atlas.source != source) {
+                atlas = new PipeAtlas(tileSize, source);
+                scaledAtlases.put(tileSize, atlas);
+            }
+            return atlas;
+        }
+    }
+
+    /**
+     * Sets the tile sizes the level window is laid out with, typically the fitted cell size and its size in
+     * device pixels. Their atlases are rasterized from the vector sheet in the background, so that the cells
+     * of the default layout are drawn without scaling, and the atlases of the previous layout sizes are released.
+     *
+     * @param tileSizes The width and height of the tiles of the layout.
+     */
+    public static void setLayoutTileSizes(int... tileSizes) {
+        layoutSizes = Arrays.stream(tileSizes).filter(size -> size > 0 && !isFixedSize(size)).distinct().sorted().toArray();
+        loadedAtlases.keySet().removeIf(size -> !isFixedSize(size) && !isLayoutSize(size));
+
+        for (int layoutSize : layoutSizes) {
+            getLoadedAtlas(layoutSize);
+        }
+
+        loader.execute(PipeAtlas::deleteStaleAtlasFiles);
+    }
+
+    /**
+     * Registers a listener notified on the loading thread each time a fixed atlas is ready, so that the
+     * tiles scaled from its placeholder can be discarded and rendered again.
+     *
+     * @param listener The listener to notify.
+     */
+    public static void addLoadListener(Runnable listener) {
+        loadListeners.add(listener);
+    }
+
+    /**
+     * Gets the size of the rendered atlas the tiles of the given size are scaled from, which is the smallest
+     * fixed or layout size that is not smaller than the tiles, so that the tiles are downscaled whenever possible.
+     *
+     * @param tileSize The width and height of the tiles.
+     * @return The tile size of the rendered atlas.
+     */
+    private static int getAtlasSize(int tileSize) {
+        int atlasSize = ATLAS_SIZES[ATLAS_SIZES.length - 1];
+
+        for (int fixedSize : ATLAS_SIZES) {
+            if (fixedSize >= tileSize) {
+                atlasSize = fixedSize;
+                break;
+            }
+        }
+
+        for (int layoutSize : layoutSizes) {
+            if (layoutSize >= tileSize && layoutSize < atlasSize) return layoutSize;
+        }
+
+        return atlasSize;
+    }
+
+    /**
+     * Checks whether an atlas of the given size is one of the fixed atlases.
+     *
+     * @param tileSize The width and height of the tiles.
+     * @return true if the size is a fixed atlas size, otherwise false.
+     */
+    private static boolean isFixedSize(int tileSize) {
+        return Arrays.binarySearch(ATLAS_SIZES, tileSize) >= 0;
+    }
+
+    /**
+     * Checks whether an atlas of the given size is one of the atlases of the current layout.
+     *
+     * @param tileSize The width and height of the tiles.
+     * @return true if the size is a layout tile size, otherwise false.
+     */
+    private static boolean isLayoutSize(int tileSize) {
+        return Arrays.binarySearch(layoutSizes, tileSize) >= 0;
+    }
+
+    /**
+     * Gets the rendered atlas of the given size if it is ready, and otherwise starts loading it in the background
+     * and returns the "pipes.gif" atlas as a placeholder.
+     *
+     * @param atlasSize The tile size of the rendered atlas.
+     * @return The rendered atlas, or the placeholder atlas while it is loading.
+     */
+    private static PipeAtlas getLoadedAtlas(int atlasSize) {
+        if (atlasSize == AssetsUtil.PIPE_SIZE) {
+            return getInstance();
+        }
+
+        PipeAtlas atlas = loadedAtlases.get(atlasSize);
+        if (atlas != null) return atlas;
+
+        if (pendingSizes.add(atlasSize)) {
+            loader.execute(() -> {
+                if (isFixedSize(atlasSize) || isLayoutSize(atlasSize)) {
+                    loadedAtlases.put(atlasSize, new PipeAtlas(atlasSize, loadTiles(atlasSize)));
+                }
+                pendingSizes.remove(atlasSize);
+
+                for (Runnable listener : loadListeners) {
+                    listener.run();
+                }
+            });
+        }
+
+        return getInstance();
+    }
+
+    /**
+     * Deletes the atlas files which do not match one of the fixed or layout atlas sizes and the current sheets,
+     * so that the cache directory does not keep growing as the sheets or the layout change.
+     */
+    private static void deleteStaleAtlasFiles() {
+        List<File> atlasFiles = new ArrayList<>();
+        int[] atlasSizes = IntStream.concat(Arrays.stream(ATLAS_SIZES), Arrays.stream(layoutSizes)).toArray();
+
+        for (int atlasSize : atlasSizes) {
+            String sourceHash = atlasSize == AssetsUtil.PIPE_SIZE ? RasterSheet.HASH : VectorSheet.HASH;
+            if (sourceHash != null) {
+                atlasFiles.add(TileAtlasFile.getFile(atlasSize, sourceHash));
+            }
+        }
+
+        TileAtlasFile.deleteStaleFiles(atlasFiles);
+    }
+
+    /**
+     * Loads the tiles of the given size from the pre-rendered atlas file and derives their rotated variants.
+     * When the file is missing or was generated from another version of the source sheet, the tiles
+     * are rendered again and the atlas file is regenerated for the next launch.
+     *
+     * @param tileSize The width and height of the tiles.
+     * @return The tiles in every rotation, indexed by {@code (line * COLUMNS + column) * ROTATIONS + rotation}.
+     */
+    private static BufferedImage[] loadTiles(int tileSize) {
+        boolean raster = tileSize == AssetsUtil.PIPE_SIZE;
+        String sourceHash = raster ? RasterSheet.HASH : VectorSheet.HASH;
+        File atlasFile = sourceHash != null ? TileAtlasFile.getFile(tileSize, sourceHash) : null;
+
+        BufferedImage[] baseTiles = TileAtlasFile.read(atlasFile, tileSize, LINES, COLUMNS);
+        if (baseTiles != null) return rotateTiles(baseTiles);
+
+        try {
+            baseTiles = raster ? decodeTiles(RasterSheet.FILE) : rasterizeTiles(tileSize);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return rotateTiles(scaleTiles(getInstance(), tileSize));
+        }
+
+        TileAtlasFile.write(atlasFile, baseTiles, tileSize, LINES, COLUMNS);
+
+        return rotateTiles(baseTiles);
+    }
+
+    /**
+     * Decodes the raster sheet and slices it into tiles.
+     *
+     * @param sheetFile The sprite sheet file.
+     * @return The tiles, line by line.
+     * @throws IOException If the sheet cannot be read.
+     */
+    private static BufferedImage[] decodeTiles(File sheetFile) throws IOException {
+        BufferedImage sheet = ImageIO.read(sheetFile);
+        if (sheet == null) throw new IOException("Unable to decode " + sheetFile);
+
+        BufferedImage[] tiles = new BufferedImage[LINES * COLUMNS];
+
+        for (int line = 0; line < LINES; line++) {
+            for (int column = 0; column < COLUMNS; column++) {
+                tiles[line * COLUMNS + column] = sliceTile(sheet, line, column);
+            }
+        }
+
+        return tiles;
+    }
+
+    /**
+     * Rasterizes every tile of the vector sheet at the given size.
+     *
+     * @param tileSize The width and height of the tiles.
+     * @return The tiles, line by line.
+     * @throws Exception If the vector sheet cannot be parsed.
+     */
+    private static BufferedImage[] rasterizeTiles(int tileSize) throws Exception {
+        SvgRasterizer rasterizer = VectorSheet.getRasterizer();
+        BufferedImage[] tiles = new BufferedImage[LINES * COLUMNS];
+
+        for (int line = 0; line < LINES; line++) {
+            for (int column = 0; column < COLUMNS; column++) {
+                tiles[line * COLUMNS + column] = rasterizer.rasterizeTile(line, column, tileSize);
+            }
+        }
+
+        return tiles;
+    }
+
+    /**
+     * Scales every tile of an atlas to the given size.
+     *
+     * @param atlas    The atlas to scale.
+     * @param tileSize The width and height of the scaled tiles.
+     * @return The scaled tiles, line by line.
+     */
+    private static BufferedImage[] scaleTiles(PipeAtlas atlas, int tileSize) {
+        BufferedImage[] tiles = new BufferedImage[LINES * COLUMNS];
+
+        for (int i = 0; i < tiles.length; i++) {
+            BufferedImage tile = atlas.tiles[i * ROTATIONS];
+            if (tile == null) continue;
+
+            tiles[i] = scaleTile(tile, tileSize);
+        }
+
+        return tiles;
+    }
+
+    /**
+     * Scales a tile to the given size.
+     *
+     * @param tile     The tile to scale.
+     * @param tileSize The width and height of the scaled tile.
+     * @return The scaled tile.
+     */
+    private static BufferedImage scaleTile(BufferedImage tile, int tileSize) {
+        BufferedImage scaledTile = new BufferedImage(tileSize, tileSize, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = scaledTile.createGraphics();
+
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        graphics.drawImage(tile, 0, 0, tileSize, tileSize, null);
+        graphics.dispose();
+
+        return scaledTile;
+    }
+
+    /**
+     * Derives the rotated variants of tiles by exact quarter turns of their pixels.
+     *
+     * @param baseTiles The tiles, line by line.
+     * @return The tiles in every rotation, indexed by {@code (line * COLUMNS + column) * ROTATIONS + rotation}.
+     */
+    private static BufferedImage[] rotateTiles(BufferedImage[] baseTiles) {
+        BufferedImage[] tiles = new BufferedImage[baseTiles.length * ROTATIONS];
+
+        for (int i = 0; i < baseTiles.length; i++) {
+            if (baseTiles[i] == null) continue;
+
+            tiles[i * ROTATIONS] = baseTiles[i];
+            for (int rotation = 1; rotation < ROTATIONS; rotation++) {
+                tiles[i * ROTATIONS + rotation] = (BufferedImage) AssetsUtil.rotateImage(baseTiles[i], rotation * 90);
+            }
+        }
+
+        return tiles;
+    }
+
+    /**
+     * Gets the width and height of the tiles of the atlas.
+     *
+     * @return The tile size in pixels.
+     */
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * Copies a tile of the sheet into its own ARGB image, detached from the sheet raster.
+     *
+     * @param sheet  The decoded sheet.
+     * @param line   The line (row) of the tile.
+     * @param column The column of the tile.
+     * @return The tile image.
+     */
+    private static BufferedImage sliceTile(BufferedImage sheet, int line, int column) {
+        int size = AssetsUtil.PIPE_SIZE;
+        int x = size * column + AssetsUtil.PIPE_PADDING * column;
+        int y = size * line + AssetsUtil.PIPE_PADDING * line;
+
+        BufferedImage tile = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = tile.createGraphics();
+
+        graphics.drawImage(sheet.getSubimage(x, y, size, size), 0, 0, null);
+        graphics.dispose();
+
+        return tile;
+    }
+
+    /**
+     * Gets a tile of the sheet.
+     *
+     * @param line   The line (row) of the tile.
+     * @param column The column of the tile.
+     * @return The tile image, or null if the tile does not exist or the sheet could not be decoded.
+     */
+    public Image getTile(int line, int column) {
+        return getTile(line, column, 0);
+    }
+
+    /**
+     * Gets a tile of the sheet rotated clockwise by a number of quarter turns.
+     * The rotated variants are pre-rendered, so no rotation happens at lookup time.
+     *
+     * @param line         The line (row) of the tile.
+     * @param column       The column of the tile.
+     * @param quarterTurns The number of clockwise quarter turns.
+     * @return The rotated tile image, or null if the tile does not exist or the sheet could not be decoded.
+     */
+    public Image getTile(int line, int column, int quarterTurns) {
+        if (line < 0 || line >= LINES || column < 0 || column >= COLUMNS) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        int rotation = Math.floorMod(quarterTurns, ROTATIONS);
+        int index = (line * COLUMNS + column) * ROTATIONS + rotation;
+        BufferedImage tile = source == null ? tiles[index] : getScaledTile(index);
+
+        if (tile == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+
+        return tile;
+    }
+
+    /**
+     * Gets a tile scaled from the source atlas, scaling it the first time it is requested.
+     *
+     * @param index The index of the tile, as in {@link #getTile(int, int, int)}.
+     * @return The scaled tile, or null if the source atlas has no such tile.
+     */
+    private BufferedImage getScaledTile(int index) {
+        synchronized (tiles) {
+            if (tiles[index] == null && source.tiles[index] != null) {
+                tiles[index] = scaleTile(source.tiles[index], tileSize);
+            }
+            return tiles[index];
+        }
+    }
+
+    /**
+     * Gets the number of lookups served by the atlas.
+     *
+     * @return The number of hits.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of lookups that could not be served by the atlas.
+     *
+     * @return The number of misses.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Returns a string representation of the atlas lookup statistics.
+     *
+     * @return A string describing the hits and misses of the atlas.
+     */
+    @Override
+    public String toString() {
+        return "PipeAtlas (Hits: " + getHitCount() + ", Misses: " + getMissCount() + ")";
+    }
+}
@@ -0,0 +1,597 @@
+package util;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Rasterizes the tiles of the "pipes.svg" vector sheet at any tile size.
+ * Only the subset of SVG used by the sheet is supported: groups, paths, rectangles, circles,
+ * symbols referenced by use elements, affine transforms and flat fill and stroke styles.
+ * The sheet is laid out exactly like "pipes.gif", with tiles of {@link AssetsUtil#PIPE_SIZE} pixels
+ * separated by {@link AssetsUtil#PIPE_PADDING} pixels.
+ *
+ * @author hamza-okutucu
+ */
+public class SvgRasterizer {
+
+    private List<DrawCommand> drawCommands;
+
+    /**
+     * A shape of the sheet along with its transform to sheet pixels and its style.
+     */
+    private static class DrawCommand {
+        private Shape shape;
+        private AffineTransform transform;
+        private Rectangle2D bounds;
+        private Color fill;
+        private Color stroke;
+        private float strokeWidth;
+    }
+
+    /**
+     * Parses the given vector sheet.
+     *
+     * @param svgFile The vector sheet file.
+     * @throws Exception If the file cannot be read or parsed.
+     */
+    public SvgRasterizer(File svgFile) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+        DocumentBuilder builder = factory.newDocumentBuilder();
+        Document document = builder.parse(svgFile);
+        Element root = document.getDocumentElement();
+
+        Map<String, Element> elementsById = new HashMap<>();
+        indexElements(root, elementsById);
+
+        drawCommands = new ArrayList<>();
+        collectDrawCommands(root, getViewBoxTransform(root), new Style(), elementsById, false);
+    }
+
+    /**
+     * Rasterizes a tile of the sheet at the given size.
+     *
+     * @param line   The line (row) of the tile.
+     * @param column The column of the tile.
+     * @param size   The width and height of the rasterized tile.
+     * @return The rasterized tile.
+     */
+    public BufferedImage rasterizeTile(int line, int column, int size) {
+        double scale = (double) size / AssetsUtil.PIPE_SIZE;
+        int step = AssetsUtil.PIPE_SIZE + AssetsUtil.PIPE_PADDING;
+        Rectangle2D tileBounds = new Rectangle2D.Double(step * column, step * line, AssetsUtil.PIPE_SIZE, AssetsUtil.PIPE_SIZE);
+
+        BufferedImage tile = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = tile.createGraphics();
+
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        graphics.scale(scale, scale);
+        graphics.translate(-tileBounds.getX(), -tileBounds.getY());
+        graphics.clip(tileBounds);
+
+        AffineTransform sheetTransform = graphics.getTransform();
+
+        for (DrawCommand command : drawCommands) {
+            if (!command.bounds.intersects(tileBounds)) continue;
+
+            graphics.setTransform(sheetTransform);
+            graphics.transform(command.transform);
+
+            if (command.fill != null) {
+                graphics.setColor(command.fill);
+                graphics.fill(command.shape);
+            }
+
+            if (command.stroke != null && command.strokeWidth > 0) {
+                graphics.setColor(command.stroke);
+                graphics.setStroke(new BasicStroke(command.strokeWidth, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 4));
+                graphics.draw(command.shape);
+            }
+        }
+
+        graphics.dispose();
+
+        return tile;
+    }
+
+    /**
+     * Indexes every element of the document having an identifier.
+     *
+     * @param element      The element to index along with its descendants.
+     * @param elementsById The index to fill.
+     */
+    private static void indexElements(Element element, Map<String, Element> elementsById) {
+        String id = element.getAttribute("id");
+        if (!id.isEmpty()) {
+            elementsById.put(id, element);
+        }
+
+        for (Element child : getChildElements(element)) {
+            indexElements(child, elementsById);
+        }
+    }
+
+    /**
+     * Computes the transform from the user space of the document to sheet pixels.
+     *
+     * @param root The root svg element.
+     * @return The transform mapping the view box to the pixel size of the document.
+     */
+    private static AffineTransform getViewBoxTransform(Element root) {
+        AffineTransform transform = new AffineTransform();
+        String viewBox = root.getAttribute("viewBox");
+
+        if (!viewBox.isEmpty()) {
+            double[] values = parseNumbers(viewBox);
+            double width = parseLength(root.getAttribute("width"), values[2]);
+            double height = parseLength(root.getAttribute("height"), values[3]);
+            transform.scale(width / values[2], height / values[3]);
+            transform.translate(-values[0], -values[1]);
+        }
+
+        return transform;
+    }
+
+    /**
+     * Walks the document and records a draw command for each shape.
+     *
+     * @param element      The element to walk.
+     * @param transform    The transform from the element's parent space to sheet pixels.
+     * @param parentStyle  The style inherited from the parent.
+     * @param elementsById The index of the elements of the document.
+     * @param referenced   Whether the element is rendered through a use element.
+     */
+    private void collectDrawCommands(Element element, AffineTransform transform, Style parentStyle, Map<String, Element> elementsById, boolean referenced) {
+        String name = element.getLocalName() != null ? element.getLocalName() : element.getTagName();
+        int prefixEnd = name.indexOf(':');
+        if (prefixEnd >= 0) name = name.substring(prefixEnd + 1);
+
+        if (name.equals("defs") || name.equals("metadata") || name.equals("namedview")) return;
+        if (name.equals("symbol") && !referenced) return;
+
+        AffineTransform elementTransform = new AffineTransform(transform);
+        elementTransform.concatenate(parseTransform(element.getAttribute("transform")));
+        Style style = parentStyle.derive(element);
+
+        switch (name) {
+            case "svg":
+            case "g":
+            case "symbol":
+                for (Element child : getChildElements(element)) {
+                    collectDrawCommands(child, elementTransform, style, elementsById, false);
+                }
+                break;
+            case "use":
+                String href = element.getAttribute("xlink:href");
+                if (href.isEmpty()) href = element.getAttribute("href");
+                Element target = elementsById.get(href.startsWith("#") ? href.substring(1) : href);
+                if (target != null) {
+                    elementTransform.translate(parseLength(element.getAttribute("x"), 0), parseLength(element.getAttribute("y"), 0));
+                    collectDrawCommands(target, elementTransform, style, elementsById, true);
+                }
+                break;
+            case "path":
+                addDrawCommand(parsePath(element.getAttribute("d")), elementTransform, style);
+                break;
+            case "rect":
+                addDrawCommand(parseRect(element), elementTransform, style);
+                break;
+            case "circle":
+                double cx = parseLength(element.getAttribute("cx"), 0);
+                double cy = parseLength(element.getAttribute("cy"), 0);
+                double r = parseLength(element.getAttribute("r"), 0);
+                addDrawCommand(new Ellipse2D.Double(cx - r, cy - r, 2 * r, 2 * r), elementTransform, style);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Records a draw command for a shape.
+     *
+     * @param shape     The shape in its own user space.
+     * @param transform The transform from the shape's user space to sheet pixels.
+     * @param style     The style of the shape.
+     */
+    private void addDrawCommand(Shape shape, AffineTransform transform, Style style) {
+        DrawCommand command = new DrawCommand();
+        command.shape = shape;
+        command.transform = transform;
+        command.fill = style.getFillColor();
+        command.stroke = style.getStrokeColor();
+        command.strokeWidth = style.strokeWidth;
+
+        if (command.fill == null && command.stroke == null) return;
+
+        Rectangle2D bounds = shape.getBounds2D();
+        double margin = command.stroke != null ? style.strokeWidth : 0;
+        bounds.setRect(bounds.getX() - margin, bounds.getY() - margin, bounds.getWidth() + 2 * margin, bounds.getHeight() + 2 * margin);
+        command.bounds = transform.createTransformedShape(bounds).getBounds2D();
+
+        drawCommands.add(command);
+    }
+
+    /**
+     * Gets the child elements of an element.
+     *
+     * @param element The parent element.
+     * @return The list of the child elements.
+     */
+    private static List<Element> getChildElements(Element element) {
+        List<Element> children = new ArrayList<>();
+        NodeList nodes = element.getChildNodes();
+
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Node node = nodes.item(i);
+            if (node.getNodeType() == Node.ELEMENT_NODE) {
+                children.add((Element) node);
+            }
+        }
+
+        return children;
+    }
+
+    /**
+     * Parses a rect element, with optional rounded corners.
+     *
+     * @param element The rect element.
+     * @return The rectangle shape.
+     */
+    private static Shape parseRect(Element element) {
+        double x = parseLength(element.getAttribute("x"), 0);
+        double y = parseLength(element.getAttribute("y"), 0);
+        double width = parseLength(element.getAttribute("width"), 0);
+        double height = parseLength(element.getAttribute("height"), 0);
+        double rx = parseLength(element.getAttribute("rx"), -1);
+        double ry = parseLength(element.getAttribute("ry"), -1);
+
+        if (rx < 0) rx = ry;
+        if (ry < 0) ry = rx;
+        if (rx <= 0) return new Rectangle2D.Double(x, y, width, height);
+
+        return new RoundRectangle2D.Double(x, y, width, height, 2 * rx, 2 * ry);
+    }
+
+    /**
+     * Parses the path data of a path element.
+     *
+     * @param data The path data.
+     * @return The path shape.
+     */
+    private static Shape parsePath(String data) {
+        Path2D.Double path = new Path2D.Double();
+        PathTokenizer tokenizer = new PathTokenizer(data);
+        char command = 'M';
+        double x = 0, y = 0, startX = 0, startY = 0, controlX = 0, controlY = 0;
+
+        while (tokenizer.hasMore()) {
+            if (tokenizer.isCommandNext()) {
+                command = tokenizer.nextCommand();
+            }
+
+            boolean relative = Character.isLowerCase(command);
+            double baseX = relative ? x : 0;
+            double baseY = relative ? y : 0;
+            char previousCommand = command;
+
+            switch (Character.toUpperCase(command)) {
+                case 'M':
+                    x = baseX + tokenizer.nextNumber();
+                    y = baseY + tokenizer.nextNumber();
+                    path.moveTo(x, y);
+                    startX = x;
+                    startY = y;
+                    command = relative ? 'l' : 'L';
+                    break;
+                case 'L':
+                    x = baseX + tokenizer.nextNumber();
+                    y = baseY + tokenizer.nextNumber();
+                    path.lineTo(x, y);
+                    break;
+                case 'H':
+                    x = baseX + tokenizer.nextNumber();
+                    path.lineTo(x, y);
+                    break;
+                case 'V':
+                    y = baseY + tokenizer.nextNumber();
+                    path.lineTo(x, y);
+                    break;
+                case 'C':
+                    double x1 = baseX + tokenizer.nextNumber();
+                    double y1 = baseY + tokenizer.nextNumber();
+                    controlX = baseX + tokenizer.nextNumber();
+                    controlY = baseY + tokenizer.nextNumber();
+                    x = baseX + tokenizer.nextNumber();
+                    y = baseY + tokenizer.nextNumber();
+                    path.curveTo(x1, y1, controlX, controlY, x, y);
+                    break;
+                case 'S':
+                    double reflectedX = 2 * x - controlX;
+                    double reflectedY = 2 * y - controlY;
+                    controlX = baseX + tokenizer.nextNumber();
+                    controlY = baseY + tokenizer.nextNumber();
+                    x = baseX + tokenizer.nextNumber();
+                    y = baseY + tokenizer.nextNumber();
+                    path.curveTo(reflectedX, reflectedY, controlX, controlY, x, y);
+                    break;
+                case 'Q':
+                    controlX = baseX + tokenizer.nextNumber();
+                    controlY = baseY + tokenizer.nextNumber();
+                    x = baseX + tokenizer.nextNumber();
+                    y = baseY + tokenizer.nextNumber();
+                    path.quadTo(controlX, controlY, x, y);
+                    break;
+                case 'Z':
+                    path.closePath();
+                    x = startX;
+                    y = startY;
+                    if (tokenizer.hasMore() && !tokenizer.isCommandNext()) return path;
+                    break;
+                default:
+                    return path;
+            }
+
+            char upperCommand = Character.toUpperCase(previousCommand);
+            if (upperCommand != 'C' && upperCommand != 'S' && upperCommand != 'Q') {
+                controlX = x;
+                controlY = y;
+            }
+        }
+
+        return path;
+    }
+
+    /**
+     * Parses a transform attribute made of matrix, translate, scale and rotate functions.
+     *
+     * @param value The transform attribute.
+     * @return The corresponding affine transform.
+     */
+    private static AffineTransform parseTransform(String value) {
+        AffineTransform transform = new AffineTransform();
+        int index = 0;
+
+        while (index < value.length()) {
+            int open = value.indexOf('(', index);
+            int close = value.indexOf(')', open + 1);
+            if (open < 0 || close < 0) break;
+
+            String function = value.substring(index, open).replace(",", "").trim();
+            double[] arguments = parseNumbers(value.substring(open + 1, close));
+
+            switch (function) {
+                case "matrix":
+                    transform.concatenate(new AffineTransform(arguments[0], arguments[1], arguments[2], arguments[3], arguments[4], arguments[5]));
+                    break;
+                case "translate":
+                    transform.translate(arguments[0], arguments.length > 1 ? arguments[1] : 0);
+                    break;
+                case "scale":
+                    transform.scale(arguments[0], arguments.length > 1 ? arguments[1] : arguments[0]);
+                    break;
+                case "rotate":
+                    if (arguments.length > 2) {
+                        transform.rotate(Math.toRadians(arguments[0]), arguments[1], arguments[2]);
+                    } else {
+                        transform.rotate(Math.toRadians(arguments[0]));
+                    }
+                    break;
+                default:
+                    break;
+            }
+
+            index = close + 1;
+        }
+
+        return transform;
+    }
+
+    /**
+     * Parses a list of numbers separated by spaces or commas.
+     *
+     * @param value The list of numbers.
+     * @return The parsed numbers.
+     */
+    private static double[] parseNumbers(String value) {
+        PathTokenizer tokenizer = new PathTokenizer(value);
+        List<Double> numbers = new ArrayList<>();
+
+        while (tokenizer.hasMore()) {
+            numbers.add(tokenizer.nextNumber());
+        }
+
+        double[] result = new double[numbers.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = numbers.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Parses a length, ignoring its unit, and falls back to a default value when it is missing or relative.
+     *
+     * @param value        The length attribute.
+     * @param defaultValue The value to use when the length is missing.
+     * @return The parsed length.
+     */
+    private static double parseLength(String value, double defaultValue) {
+        if (value == null || value.isEmpty() || value.endsWith("%")) return defaultValue;
+
+        try {
+            return Double.parseDouble(value.replaceAll("[a-z]+$", ""));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Splits path data and number lists into commands and numbers.
+     */
+    private static class PathTokenizer {
+        private String data;
+        private int index;
+
+        PathTokenizer(String data) {
+            this.data = data;
+            this.index = 0;
+        }
+
+        private void skipSeparators() {
+            while (index < data.length() && (Character.isWhitespace(data.charAt(index)) || data.charAt(index) == ',')) {
+                index++;
+            }
+        }
+
+        boolean hasMore() {
+            skipSeparators();
+            return index < data.length();
+        }
+
+        boolean isCommandNext() {
+            skipSeparators();
+            char c = data.charAt(index);
+            return Character.isLetter(c) && c != 'e' && c != 'E';
+        }
+
+        char nextCommand() {
+            skipSeparators();
+            return data.charAt(index++);
+        }
+
+        double nextNumber() {
+            skipSeparators();
+            int start = index;
+
+            if (index < data.length() && (data.charAt(index) == '-' || data.charAt(index) == '+')) index++;
+
+            boolean dotSeen = false;
+            while (index < data.length()) {
+                char c = data.charAt(index);
+                if (Character.isDigit(c)) {
+                    index++;
+                } else if (c == '.' && !dotSeen) {
+                    dotSeen = true;
+                    index++;
+                } else if ((c == 'e' || c == 'E') && index + 1 < data.length()) {
+                    index++;
+                    if (data.charAt(index) == '-' || data.charAt(index) == '+') index++;
+                } else {
+                    break;
+                }
+            }
+
+            if (start == index) {
+                index++;
+                return 0;
+            }
+
+            return Double.parseDouble(data.substring(start, index));
+        }
+    }
+
+    /**
+     * The inheritable presentation style of an element.
+     */
+    private static class Style {
+        private String fill = "#000000";
+        private String stroke = "none";
+        private float fillOpacity = 1;
+        private float strokeOpacity = 1;
+        private float opacity = 1;
+        private float strokeWidth = 1;
+
+        /**
+         * Creates the style of a child element from this inherited style.
+         *
+         * @param element The child element.
+         * @return The style of the child element.
+         */
+        Style derive(Element element) {
+            Style style = new Style();
+            style.fill = fill;
+            style.stroke = stroke;
+            style.fillOpacity = fillOpacity;
+            style.strokeOpacity = strokeOpacity;
+            style.strokeWidth = strokeWidth;
+
+            for (String property : new String[] { "fill", "stroke", "fill-opacity", "stroke-opacity", "stroke-width", "opacity" }) {
+                if (element.hasAttribute(property)) {
+                    style.set(property, element.getAttribute(property));
+                }
+            }
+
+            for (String declaration : element.getAttribute("style").split(";")) {
+                int separator = declaration.indexOf(':');
+                if (separator > 0) {
+                    style.set(declaration.substring(0, separator).trim(), declaration.substring(separator + 1).trim());
+                }
+            }
+
+            return style;
+        }
+
+        private void set(String property, String value) {
+            try {
+                switch (property) {
+                    case "fill": fill = value; break;
+                    case "stroke": stroke = value; break;
+                    case "fill-opacity": fillOpacity = Float.parseFloat(value); break;
+                    case "stroke-opacity": strokeOpacity = Float.parseFloat(value); break;
+                    case "stroke-width": strokeWidth = (float) parseLength(value, strokeWidth); break;
+                    case "opacity": opacity = Float.parseFloat(value); break;
+                    default: break;
+                }
+            } catch (NumberFormatException e) {
+                e.printStackTrace();
+            }
+        }
+
+        Color getFillColor() {
+            return parseColor(fill, fillOpacity * opacity);
+        }
+
+        Color getStrokeColor() {
+            return parseColor(stroke, strokeOpacity * opacity);
+        }
+
+        private static Color parseColor(String value, float alpha) {
+            if (value == null || !value.startsWith("#")) return null;
+
+            String hex = value.substring(1);
+            if (hex.length() == 3) {
+                hex = "" + hex.charAt(0) + hex.charAt(0) + hex.charAt(1) + hex.charAt(1) + hex.charAt(2) + hex.charAt(2);
+            }
+
+            int rgb = Integer.parseInt(hex, 16);
+            int a = Math.round(Math.max(0, Math.min(1, alpha)) * 255);
+            return new Color((a << 24) | rgb, true);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package util;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Reads and writes the on-disk atlas of pre-rendered tiles.
+ * The file stores the raw ARGB pixels of every tile, preceded by a small header, so that loading an atlas
+ * is a memory mapping followed by bulk copies into the tile images. Only the tiles in their base rotation
+ * are stored: the rotated variants are exact quarter turns of them, cheaper to derive on load than to read.
+ * <p>
+ * Layout: the magic number, the format version, the tile size, the number of lines and columns,
+ * then for each line and column the {@code size * size} pixels of the tile.
+ *
+ * @author hamza-okutucu
+ */
+public class TileAtlasFile {
+
+    private static final int MAGIC = 0x504C5441;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 5 * Integer.BYTES;
+    private static final String PREFIX = "atlas-";
+    private static final String EXTENSION = ".argb";
+
+    /**
+     * Gets the cache file of an atlas.
+     *
+     * @param tileSize   The width and height of the tiles.
+     * @param sourceHash The hash of the asset the tiles are derived from.
+     * @return The cache file, or null if there is no cache directory.
+     */
+    public static File getFile(int tileSize, String sourceHash) {
+        return AssetsCache.getCacheFile(PREFIX + tileSize + "-" + sourceHash + EXTENSION);
+    }
+
+    /**
+     * Deletes the atlas files of the cache directory other than the given ones, which were rendered at a
+     * tile size that is no longer used or from a previous version of their source sheet.
+     *
+     * @param currentFiles The atlas files to keep.
+     */
+    public static void deleteStaleFiles(Collection<File> currentFiles) {
+        File cacheDirectory = AssetsCache.getCacheDirectory();
+        if (cacheDirectory == null) return;
+
+        File[] atlasFiles = cacheDirectory.listFiles((directory, name) -> name.startsWith(PREFIX) && name.endsWith(EXTENSION));
+        if (atlasFiles == null) return;
+
+        for (File atlasFile : atlasFiles) {
+            if (!currentFiles.contains(atlasFile) && !atlasFile.delete()) {
+                try {
+                    throw new IOException("Impossible de supprimer l'atlas obsolete : " + atlasFile);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads an atlas by mapping its file in memory and copying each tile into its own image.
+     *
+     * @param file     The atlas file.
+     * @param tileSize The expected width and height of the tiles.
+     * @param lines    The expected number of tile lines.
+     * @param columns  The expected number of tile columns.
+     * @return The tiles indexed by {@code line * columns + column},
+     *         or null if the file is missing or does not match the expected layout.
+     */
+    public static BufferedImage[] read(File file, int tileSize, int lines, int columns) {
+        if (file == null || !file.isFile()) return null;
+
+        int tileCount = lines * columns;
+        long expectedLength = HEADER_SIZE + (long) tileCount * tileSize * tileSize * Integer.BYTES;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() != expectedLength) return null;
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, expectedLength);
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != tileSize
+                    || buffer.getInt() != lines || buffer.getInt() != columns) {
+                return null;
+            }
+
+            IntBuffer pixels = buffer.asIntBuffer();
+            BufferedImage[] tiles = new BufferedImage[tileCount];
+
+            for (int i = 0; i < tileCount; i++) {
+                tiles[i] = new BufferedImage(tileSize, tileSize, BufferedImage.TYPE_INT_ARGB);
+                pixels.get(((DataBufferInt) tiles[i].getRaster().getDataBuffer()).getData());
+            }
+
+            return tiles;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Writes an atlas to its file, streaming the pixels one row at a time through a buffer of a single tile.
+     * The file is replaced atomically. The missing tiles are written as transparent pixels.
+     *
+     * @param file     The atlas file.
+     * @param tiles    The tiles indexed by {@code line * columns + column}.
+     * @param tileSize The width and height of the tiles.
+     * @param lines    The number of tile lines.
+     * @param columns  The number of tile columns.
+     */
+    public static void write(File file, BufferedImage[] tiles, int tileSize, int lines, int columns) {
+        if (file == null) return;
+
+        File temporaryFile = AssetsCache.getTemporaryFile(file);
+
+        try {
+            try (FileChannel channel = FileChannel.open(temporaryFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).putInt(tileSize).putInt(lines).putInt(columns).flip();
+                writeFully(channel, header);
+
+                ByteBuffer buffer = ByteBuffer.allocateDirect(tileSize * tileSize * Integer.BYTES);
+                IntBuffer pixels = buffer.asIntBuffer();
+                int[] row = new int[tileSize];
+
+                for (BufferedImage tile : tiles) {
+                    pixels.clear();
+
+                    for (int y = 0; y < tileSize; y++) {
+                        if (tile != null) {
+                            tile.getRGB(0, y, tileSize, 1, row, 0, tileSize);
+                        } else {
+                            Arrays.fill(row, 0);
+                        }
+                        pixels.put(row);
+                    }
+
+                    buffer.clear();
+                    writeFully(channel, buffer);
+                }
+            }
+
+            AssetsCache.replaceAtomically(temporaryFile, file);
+        } catch (IOException e) {
+            e.printStackTrace();
+            temporaryFile.delete();
+        }
+    }
+
+    /**
+     * Writes the remaining bytes of a buffer to a channel.
+     *
+     * @param channel The channel to write to.
+     * @param buffer  The buffer to write.
+     * @throws IOException If the channel cannot be written.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package util;
+
+import java.awt.Image;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of rendered tile images shared between all the board elements.
+ * Each distinct tile (pipe type, colors, rotations, attachment, etc.) is rendered once and the
+ * resulting image is handed out to every element displaying that tile, so the images returned by
+ * this cache must be treated as read-only.
+ * <p>
+ * A tile is identified by two primitive keys encoded by the caller: the size of the tile, and the visual
+ * state of the element it displays. The tiles of each size are kept in their own table indexed by state,
+ * which needs no bound since there are only a few thousand visual states, so that rendering at a new size
+ * never evicts the tiles of the other sizes in use, such as the logical and device sizes of a scaled display.
+ * The tables of the least recently used sizes are evicted once the capacity is reached.
+ *
+ * @author hamza-okutucu
+ */
+public final class TileCache {
+
+    /**
+     * The maximum number of tile sizes kept by the shared cache.
+     */
+    public static final int DEFAULT_CAPACITY = 8;
+
+    private final Map<Long, TileTable> tables;
+    private TileTable lastTable;
+    private long hits;
+    private long misses;
+
+    /**
+     * Lazily initialized holder of the shared cache.
+     */
+    private static class Holder {
+        private static final TileCache INSTANCE = new TileCache(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Open addressing table of the tiles of one size, indexed by the state of the element they display.
+     */
+    private static class TileTable {
+
+        private static final long EMPTY = -1;
+
+        private final long size;
+        private long[] states;
+        private Image[] tiles;
+        private int count;
+
+        /**
+         * Initializes an empty table of tiles.
+         *
+         * @param size The key of the size of the tiles.
+         */
+        TileTable(long size) {
+            this.size = size;
+            this.states = new long[64];
+            this.tiles = new Image[64];
+            Arrays.fill(states, EMPTY);
+        }
+
+        /**
+         * Gets the tile displaying a state.
+         *
+         * @param state The key of the state.
+         * @return The tile, or null if it is not cached.
+         */
+        Image get(long state) {
+            int mask = states.length - 1;
+
+            for (int i = hash(state) & mask; states[i] != EMPTY; i = (i + 1) & mask) {
+                if (states[i] == state) return tiles[i];
+            }
+
+            return null;
+        }
+
+        /**
+         * Caches the tile displaying a state, unless a tile is already cached for it.
+         *
+         * @param state The key of the state.
+         * @param tile  The tile.
+         * @return The tile already cached for the state, or null if the tile was added.
+         */
+        Image putIfAbsent(long state, Image tile) {
+            Image cachedTile = get(state);
+            if (cachedTile != null) return cachedTile;
+
+            if ((count + 1) * 2 > states.length) {
+                grow();
+            }
+
+            insert(state, tile);
+            count++;
+
+            return null;
+        }
+
+        /**
+         * Doubles the capacity of the table.
+         */
+        private void grow() {
+            long[] oldStates = states;
+            Image[] oldTiles = tiles;
+
+            states = new long[oldStates.length * 2];
+            tiles = new Image[oldTiles.length * 2];
+            Arrays.fill(states, EMPTY);
+
+            for (int i = 0; i < oldStates.length; i++) {
+                if (oldStates[i] != EMPTY) insert(oldStates[i], oldTiles[i]);
+            }
+        }
+
+        /**
+         * Stores a tile in the first free entry of the probe sequence of its state.
+         *
+         * @param state The key of the state.
+         * @param tile  The tile.
+         */
+        private void insert(long state, Image tile) {
+            int mask = states.length - 1;
+            int i = hash(state) & mask;
+
+            while (states[i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+
+            states[i] = state;
+            tiles[i] = tile;
+        }
+
+        /**
+         * Spreads the bits of a state key.
+         *
+         * @param state The key of the state.
+         * @return The hash of the key.
+         */
+        private static int hash(long state) {
+            long hash = state * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ hash >>> 32);
+        }
+    }
+
+    /**
+     * Initializes an empty cache with the given capacity.
+     *
+     * @param capacity The maximum number of tile sizes kept by the cache.
+     */
+    public TileCache(int capacity) {
+        tables = new LinkedHashMap<Long, TileTable>(capacity, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, TileTable> eldest) {
+                if (size() <= capacity) return false;
+
+                if (eldest.getValue() == lastTable) {
+                    lastTable = null;
+                }
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Gets the cache shared by the whole application.
+     *
+     * @return The shared tile cache.
+     */
+    public static TileCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Gets the tile associated with the given keys, rendering and caching it if it is not cached yet.
+     * The tile is rendered outside the lock of the cache, so that a slow rendering does not block the lookups
+     * of other threads. When several threads render the same tile at the same time, the first published tile
+     * is kept and returned to all of them.
+     *
+     * @param size     The key describing the size of the tile, and of the display it is rendered for.
+     * @param state    The key describing every visual property of the element displayed by the tile,
+     *                 which must not be negative.
+     * @param renderer The function rendering the tile when it is missing.
+     * @return The shared tile image.
+     */
+    public Image get(long size, long state, Supplier<Image> renderer) {
+        synchronized (this) {
+            Image tile = getTable(size).get(state);
+
+            if (tile != null) {
+                hits++;
+                return tile;
+            }
+
+            misses++;
+        }
+
+        Image renderedTile = renderer.get();
+        if (renderedTile == null) return null;
+
+        synchronized (this) {
+            Image tile = getTable(size).putIfAbsent(state, renderedTile);
+            return tile != null ? tile : renderedTile;
+        }
+    }
+
+    /**
+     * Gets the table of the tiles of a size, creating it if needed.
+     * The table of the last size looked up is kept at hand, since the tiles are mostly requested at one size.
+     *
+     * @param size The key of the size of the tiles.
+     * @return The table of the tiles of this size.
+     */
+    private TileTable getTable(long size) {
+        if (lastTable != null && lastTable.size == size) return lastTable;
+
+        TileTable table = tables.get(size);
+
+        if (table == null) {
+            table = new TileTable(size);
+            tables.put(size, table);
+        }
+
+        lastTable = table;
+        return table;
+    }
+
+    /**
+     * Gets the number of tiles currently held by the cache.
+     *
+     * @return The number of cached tiles.
+     */
+    public synchronized int size() {
+        int size = 0;
+
+        for (TileTable table : tables.values()) {
+            size += table.count;
+        }
+
+        return size;
+    }
+
+    /**
+     * Removes every tile from the cache.
+     */
+    public synchronized void clear() {
+        tables.clear();
+        lastTable = null;
+    }
+
+    /**
+     * Gets the number of lookups served from the cache.
+     *
+     * @return The number of hits.
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that required rendering a tile.
+     *
+     * @return The number of misses.
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Returns a string representation of the cache content and statistics.
+     *
+     * @return A string describing the size, hits and misses of the cache.
+     */
+    @Override
+    public synchronized String toString() {
+        return "TileCache (Size: " + size() + ", Hits: " + hits + ", Misses: " + misses + ")";
+    }
+}
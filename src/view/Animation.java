@@ -0,0 +1,127 @@
+package view;
+
+import java.awt.DisplayMode;
+import java.awt.GraphicsEnvironment;
+
+import javax.swing.Timer;
+
+/**
+ * A time-bounded animation driven by a Swing timer.
+ * The animation runs on the event dispatch thread without blocking it: on every display frame, the frame
+ * callback receives the eased progress of the animation, computed from the elapsed time, so the animation
+ * always ends after its duration however many frames could actually be rendered.
+ *
+ * @author hamza-okutucu
+ */
+public class Animation {
+
+    /**
+     * The refresh rate used when the refresh rate of the display is unknown.
+     */
+    private static final int DEFAULT_REFRESH_RATE = 60;
+
+    /**
+     * Receives the progress of an animation on every frame.
+     */
+    public interface FrameListener {
+
+        /**
+         * Updates the animated state.
+         *
+         * @param progress The eased progress of the animation, from 0 to 1.
+         */
+        void update(double progress);
+    }
+
+    private int duration;
+    private FrameListener frameListener;
+    private Runnable finishListener;
+    private Timer timer;
+    private long startTime;
+
+    /**
+     * Constructs a new Animation.
+     *
+     * @param duration       The duration of the animation in milliseconds.
+     * @param frameListener  The callback updating the animated state on every frame.
+     * @param finishListener The callback run once the animation reached its end, or null.
+     */
+    public Animation(int duration, FrameListener frameListener, Runnable finishListener) {
+        this.duration = duration;
+        this.frameListener = frameListener;
+        this.finishListener = finishListener;
+
+        timer = new Timer(getFrameDelay(), e -> nextFrame());
+        timer.setCoalesce(true);
+    }
+
+    /**
+     * Gets the delay between two frames of the default display.
+     *
+     * @return The frame delay in milliseconds.
+     */
+    public static int getFrameDelay() {
+        int refreshRate = DEFAULT_REFRESH_RATE;
+
+        if (!GraphicsEnvironment.isHeadless()) {
+            DisplayMode displayMode = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode();
+            if (displayMode.getRefreshRate() != DisplayMode.REFRESH_RATE_UNKNOWN) {
+                refreshRate = displayMode.getRefreshRate();
+            }
+        }
+
+        return Math.max(1, 1000 / refreshRate);
+    }
+
+    /**
+     * Eases a linear progress so that the animation starts fast and slows down at its end.
+     *
+     * @param progress The linear progress, from 0 to 1.
+     * @return The eased progress, from 0 to 1.
+     */
+    public static double easeOut(double progress) {
+        double remaining = 1 - progress;
+        return 1 - remaining * remaining * remaining;
+    }
+
+    /**
+     * Starts the animation from its beginning, restarting it if it is already running.
+     */
+    public void start() {
+        startTime = System.nanoTime();
+        frameListener.update(0);
+        timer.restart();
+    }
+
+    /**
+     * Stops the animation without reaching its end. The finish callback is not run.
+     */
+    public void stop() {
+        timer.stop();
+    }
+
+    /**
+     * Checks whether the animation is running.
+     *
+     * @return true if the animation is running, otherwise false.
+     */
+    public boolean isRunning() {
+        return timer.isRunning();
+    }
+
+    /**
+     * Updates the animated state with the progress reached at the current time,
+     * and ends the animation once its duration elapsed.
+     */
+    private void nextFrame() {
+        double elapsed = (System.nanoTime() - startTime) / 1e6;
+        double progress = duration <= 0 ? 1 : Math.min(1, elapsed / duration);
+
+        frameListener.update(easeOut(progress));
+
+        if (progress >= 1) {
+            timer.stop();
+            if (finishListener != null) finishListener.run();
+        }
+    }
+}
@@ -0,0 +1,597 @@
+package view;
+
+import java.awt.Color;
+import java.awt.Container;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Image;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.MultiResolutionImage;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.swing.JComponent;
+import javax.swing.JViewport;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+import javax.swing.Timer;
+
+import model.BoardCell;
+import model.BoardChanges;
+import model.BoardElement;
+import model.LevelModel;
+import model.PathComponent;
+import model.enumeration.BoardElementType;
+import model.enumeration.Direction;
+
+/**
+ * A single component drawing the whole game board from the state of the model.
+ * Only the cells intersecting the clip of a paint request are drawn, so the cost of a repaint
+ * depends on the repainted area and not on the number of cells of the board.
+ * The changes of the board are played by a {@link FlowAnimator}, and the tiles of the cells displaying
+ * a new state are rendered once per frame, in a render phase running before their repaint.
+ * <p>
+ * The board is meant to be displayed in a scroll pane. Its preferred size follows a zoomable cell size,
+ * and it stretches to fill the viewport when the whole board fits in it, so very large boards are
+ * scrolled while their paint cost only depends on the size of the viewport.
+ * <p>
+ * When the board is zoomed out, the tiles are replaced by cheaper levels of detail: below a first cell size
+ * the pipes are drawn as plain colored lines, and below a second one each cell is a plain color block.
+ *
+ * @author hamza-okutucu
+ */
+public class BoardCanvas extends JComponent implements Scrollable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The default size of a cell in pixels.
+     */
+    public static final int DEFAULT_CELL_SIZE = 70;
+
+    /**
+     * The minimum size of a cell in pixels.
+     */
+    public static final int MIN_CELL_SIZE = 4;
+
+    /**
+     * The maximum size of a cell in pixels.
+     */
+    public static final int MAX_CELL_SIZE = 240;
+
+    /**
+     * The default cell size below which the pipes are drawn as plain colored lines instead of their tiles.
+     */
+    public static final int DEFAULT_LINE_DETAIL_THRESHOLD = 24;
+
+    /**
+     * The default cell size below which the cells are drawn as plain color blocks.
+     */
+    public static final int DEFAULT_BLOCK_DETAIL_THRESHOLD = 8;
+
+    /**
+     * The maximum time spent rendering the tiles of invalidated cells during a frame, in nanoseconds.
+     */
+    private static final long FRAME_BUDGET = 4_000_000L;
+
+    private LevelModel model;
+    private int rows;
+    private int cols;
+    private int cellSize;
+    private int lineDetailThreshold;
+    private int blockDetailThreshold;
+    private FlowAnimator flowAnimator;
+    private Set<Integer> invalidCells;
+    private Timer renderTimer;
+
+    /**
+     * Constructs a new BoardCanvas for the given game model.
+     *
+     * @param model The game model to display.
+     * @param rows  The number of rows of the grid, which may exceed the height of the board.
+     * @param cols  The number of columns of the grid.
+     */
+    public BoardCanvas(LevelModel model, int rows, int cols) {
+        this.model = model;
+        this.rows = rows;
+        this.cols = cols;
+        this.flowAnimator = new FlowAnimator(this, model);
+        this.lineDetailThreshold = DEFAULT_LINE_DETAIL_THRESHOLD;
+        this.blockDetailThreshold = DEFAULT_BLOCK_DETAIL_THRESHOLD;
+        this.invalidCells = new LinkedHashSet<>();
+
+        renderTimer = new Timer(Animation.getFrameDelay(), e -> renderInvalidCells());
+        renderTimer.setInitialDelay(0);
+        renderTimer.setCoalesce(true);
+
+        setOpaque(true);
+        setBackground(Color.black);
+        setCellSize(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Gets the zoomed size of a cell, which is the size of the cells when the board does not fill the viewport.
+     *
+     * @return The zoomed size of a cell in pixels.
+     */
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Sets the zoomed size of a cell and resizes the board accordingly.
+     *
+     * @param cellSize The size of a cell in pixels, clamped between {@link #MIN_CELL_SIZE} and {@link #MAX_CELL_SIZE}.
+     */
+    public void setCellSize(int cellSize) {
+        this.cellSize = Math.max(MIN_CELL_SIZE, Math.min(MAX_CELL_SIZE, cellSize));
+
+        setPreferredSize(new Dimension(this.cellSize * cols, this.cellSize * rows));
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * Gets the cell size below which the pipes are drawn as plain colored lines instead of their tiles.
+     *
+     * @return The threshold in pixels.
+     */
+    public int getLineDetailThreshold() {
+        return lineDetailThreshold;
+    }
+
+    /**
+     * Sets the cell size below which the pipes are drawn as plain colored lines instead of their tiles.
+     *
+     * @param lineDetailThreshold The threshold in pixels.
+     */
+    public void setLineDetailThreshold(int lineDetailThreshold) {
+        this.lineDetailThreshold = lineDetailThreshold;
+        repaint();
+    }
+
+    /**
+     * Gets the cell size below which the cells are drawn as plain color blocks.
+     *
+     * @return The threshold in pixels.
+     */
+    public int getBlockDetailThreshold() {
+        return blockDetailThreshold;
+    }
+
+    /**
+     * Sets the cell size below which the cells are drawn as plain color blocks.
+     *
+     * @param blockDetailThreshold The threshold in pixels.
+     */
+    public void setBlockDetailThreshold(int blockDetailThreshold) {
+        this.blockDetailThreshold = blockDetailThreshold;
+        repaint();
+    }
+
+    /**
+     * Checks whether the cells are drawn with their tiles at the current cell size.
+     *
+     * @return true if the cells are large enough for their tiles, otherwise false.
+     */
+    private boolean isTileDetail() {
+        return Math.min(getCellWidth(), getCellHeight()) >= lineDetailThreshold;
+    }
+
+    /**
+     * Zooms the board while keeping the board position under a point of the component at the same place
+     * of the viewport.
+     *
+     * @param factor The zoom factor applied to the cell size.
+     * @param point  The zoom center, in the coordinates of the component.
+     */
+    public void zoom(double factor, Point point) {
+        int oldCellWidth = getCellWidth();
+        int oldCellHeight = getCellHeight();
+        int newCellSize = (int) Math.round(Math.max(oldCellWidth, oldCellHeight) * factor);
+
+        if (newCellSize == Math.max(oldCellWidth, oldCellHeight)) {
+            newCellSize += factor > 1 ? 1 : -1;
+        }
+
+        double relativeX = (point.x - getGridX()) / (double) Math.max(1, oldCellWidth * cols);
+        double relativeY = (point.y - getGridY()) / (double) Math.max(1, oldCellHeight * rows);
+
+        setCellSize(newCellSize);
+
+        Container parent = getParent();
+        if (!(parent instanceof JViewport)) return;
+
+        JViewport viewport = (JViewport) parent;
+        Point viewPosition = viewport.getViewPosition();
+        int pointInViewportX = point.x - viewPosition.x;
+        int pointInViewportY = point.y - viewPosition.y;
+
+        viewport.validate();
+
+        int x = (int) Math.round(relativeX * cellSize * cols) - pointInViewportX;
+        int y = (int) Math.round(relativeY * cellSize * rows) - pointInViewportY;
+
+        scrollViewportTo(viewport, x, y);
+    }
+
+    /**
+     * Gets the part of the board displayed by the viewport.
+     *
+     * @return The visible area, whose unit is one cell.
+     */
+    public Rectangle2D getVisibleCells() {
+        Rectangle visibleRect = getVisibleRect();
+        double cellWidth = Math.max(1, getCellWidth());
+        double cellHeight = Math.max(1, getCellHeight());
+
+        return new Rectangle2D.Double((visibleRect.x - getGridX()) / cellWidth, (visibleRect.y - getGridY()) / cellHeight,
+                visibleRect.width / cellWidth, visibleRect.height / cellHeight);
+    }
+
+    /**
+     * Scrolls the viewport so that a cell is at its center, or as close to it as the board allows.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     */
+    public void scrollToCenter(int row, int col) {
+        Container parent = getParent();
+        if (!(parent instanceof JViewport)) return;
+
+        JViewport viewport = (JViewport) parent;
+        Rectangle cellBounds = getCellBounds(row, col);
+        int x = (int) cellBounds.getCenterX() - viewport.getWidth() / 2;
+        int y = (int) cellBounds.getCenterY() - viewport.getHeight() / 2;
+
+        scrollViewportTo(viewport, x, y);
+    }
+
+    /**
+     * Moves the viewport to a position of the board, clamped so that the viewport stays within the board.
+     *
+     * @param viewport The viewport displaying the board.
+     * @param x        The X coordinate of the top left corner of the viewport on the board.
+     * @param y        The Y coordinate of the top left corner of the viewport on the board.
+     */
+    private void scrollViewportTo(JViewport viewport, int x, int y) {
+        int maxX = Math.max(0, getWidth() - viewport.getWidth());
+        int maxY = Math.max(0, getHeight() - viewport.getHeight());
+
+        viewport.setViewPosition(new Point(Math.max(0, Math.min(maxX, x)), Math.max(0, Math.min(maxY, y))));
+    }
+
+    /**
+     * Gets the width of a cell in pixels.
+     *
+     * @return The width of a cell.
+     */
+    public int getCellWidth() {
+        return getWidth() / cols;
+    }
+
+    /**
+     * Gets the height of a cell in pixels.
+     *
+     * @return The height of a cell.
+     */
+    public int getCellHeight() {
+        return getHeight() / rows;
+    }
+
+    /**
+     * Gets the horizontal offset of the grid, which is centered in the component like in a GridLayout.
+     *
+     * @return The X coordinate of the left edge of the grid.
+     */
+    private int getGridX() {
+        return (getWidth() - getCellWidth() * cols) / 2;
+    }
+
+    /**
+     * Gets the vertical offset of the grid, which is centered in the component like in a GridLayout.
+     *
+     * @return The Y coordinate of the top edge of the grid.
+     */
+    private int getGridY() {
+        return (getHeight() - getCellHeight() * rows) / 2;
+    }
+
+    /**
+     * Gets the board position at the given point of the component.
+     *
+     * @param point The point in the coordinates of the component.
+     * @return A Point whose X is the column and Y is the row of the board position,
+     *         or null if the point is outside of the board.
+     */
+    public Point getCellAt(Point point) {
+        int cellWidth = getCellWidth();
+        int cellHeight = getCellHeight();
+        if (cellWidth <= 0 || cellHeight <= 0) return null;
+
+        int x = point.x - getGridX();
+        int y = point.y - getGridY();
+        if (x < 0 || y < 0) return null;
+
+        int col = x / cellWidth;
+        int row = y / cellHeight;
+
+        if (row >= model.getHeight() || col >= model.getWidth()) return null;
+
+        return new Point(col, row);
+    }
+
+    /**
+     * Gets the bounds of a cell in the coordinates of the component.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     * @return The rectangle covered by the cell.
+     */
+    public Rectangle getCellBounds(int row, int col) {
+        int cellWidth = getCellWidth();
+        int cellHeight = getCellHeight();
+        return new Rectangle(getGridX() + col * cellWidth, getGridY() + row * cellHeight, cellWidth, cellHeight);
+    }
+
+    /**
+     * Repaints a single cell of the board.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     */
+    public void repaintCell(int row, int col) {
+        repaint(getCellBounds(row, col));
+    }
+
+    /**
+     * Gets the preferred size of the viewport displaying the board, which is the size of the whole board.
+     *
+     * @return The preferred size of the viewport.
+     */
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    /**
+     * Scrolls by one cell.
+     *
+     * @param visibleRect The visible area of the board.
+     * @param orientation The scroll orientation.
+     * @param direction   The scroll direction.
+     * @return The size of a cell in the scroll orientation.
+     */
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return Math.max(1, orientation == SwingConstants.HORIZONTAL ? getCellWidth() : getCellHeight());
+    }
+
+    /**
+     * Scrolls by the visible area minus one cell.
+     *
+     * @param visibleRect The visible area of the board.
+     * @param orientation The scroll orientation.
+     * @param direction   The scroll direction.
+     * @return The distance to scroll in the scroll orientation.
+     */
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        int unitIncrement = getScrollableUnitIncrement(visibleRect, orientation, direction);
+        int visibleSize = orientation == SwingConstants.HORIZONTAL ? visibleRect.width : visibleRect.height;
+
+        return Math.max(unitIncrement, visibleSize - unitIncrement);
+    }
+
+    /**
+     * Stretches the board to the width of the viewport when the whole board fits in it.
+     *
+     * @return true if the board is not wider than the viewport, otherwise false.
+     */
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        Container parent = getParent();
+        return parent instanceof JViewport && parent.getWidth() >= getPreferredSize().width;
+    }
+
+    /**
+     * Stretches the board to the height of the viewport when the whole board fits in it.
+     *
+     * @return true if the board is not higher than the viewport, otherwise false.
+     */
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        Container parent = getParent();
+        return parent instanceof JViewport && parent.getHeight() >= getPreferredSize().height;
+    }
+
+    /**
+     * Gets the animator playing the changes of the board.
+     *
+     * @return The flow animator of the board.
+     */
+    public FlowAnimator getFlowAnimator() {
+        return flowAnimator;
+    }
+    
+    /**
+     * Displays the changes of an operation, animating the flow of the recolored cells.
+     *
+     * @param changes The cells changed by the operation.
+     */
+    public void animateChanges(BoardChanges changes) {
+        flowAnimator.animate(changes);
+    }
+    
+    /**
+     * Marks a cell as displaying a new state. Its tile is rendered and the cell repainted during the next
+     * render phase, so a cell invalidated several times before the next frame is only rendered once.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     */
+    public void invalidateCell(int row, int col) {
+        invalidCells.add(row * model.getWidth() + col);
+
+        if (!renderTimer.isRunning()) renderTimer.start();
+    }
+
+    /**
+     * Runs the render phase of a frame: renders the tiles of the invalidated cells and repaints them,
+     * within the time budget of a frame. The cells which could not be rendered in time are rendered
+     * by the next frames.
+     */
+    private void renderInvalidCells() {
+        long frameTime = System.nanoTime();
+        Iterator<Integer> iterator = invalidCells.iterator();
+
+        while (iterator.hasNext()) {
+            if (System.nanoTime() - frameTime > FRAME_BUDGET) return;
+
+            int index = iterator.next();
+            iterator.remove();
+
+            int row = index / model.getWidth();
+            int col = index % model.getWidth();
+
+            prepareCell(row, col);
+            repaintCell(row, col);
+        }
+
+        renderTimer.stop();
+    }
+
+    /**
+     * Renders the tile of a cell at the current cell size ahead of its repaint, if the cells are drawn with their tiles.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     */
+    private void prepareCell(int row, int col) {
+        BoardElement element = flowAnimator.getDisplayedElement(row, col);
+        if (element == null || !isTileDetail()) return;
+        
+        Image tile = getTile(element, getCellWidth(), getCellHeight());
+        
+        if (tile instanceof MultiResolutionImage) {
+            AffineTransform transform = getGraphicsConfiguration().getDefaultTransform();
+            ((MultiResolutionImage) tile).getResolutionVariant(getCellWidth() * transform.getScaleX(), getCellHeight() * transform.getScaleY());
+        }
+    }
+    
+    /**
+     * Gets the tile of a board element scaled to the size of a cell.
+     *
+     * @param element    The board element.
+     * @param cellWidth  The width of a cell.
+     * @param cellHeight The height of a cell.
+     * @return The scaled tile.
+     */
+    private Image getTile(BoardElement element, int cellWidth, int cellHeight) {
+        return TileRenderer.getTile(element, cellWidth, cellHeight, getGraphicsConfiguration());
+    }
+    
+    /**
+     * Paints the cells of the board intersecting the clip of the graphics context.
+     *
+     * @param g The graphics context for painting.
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        int cellWidth = getCellWidth();
+        int cellHeight = getCellHeight();
+        if (cellWidth <= 0 || cellHeight <= 0) return;
+
+        int gridX = getGridX();
+        int gridY = getGridY();
+        int firstCol = Math.max(0, (clip.x - gridX) / cellWidth);
+        int firstRow = Math.max(0, (clip.y - gridY) / cellHeight);
+        int lastCol = Math.min(model.getWidth() - 1, (clip.x + clip.width - 1 - gridX) / cellWidth);
+        int lastRow = Math.min(model.getHeight() - 1, (clip.y + clip.height - 1 - gridY) / cellHeight);
+        int detailSize = Math.min(cellWidth, cellHeight);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                BoardElement element = flowAnimator.getDisplayedElement(row, col);
+                if (element == null) continue;
+
+                int x = gridX + col * cellWidth;
+                int y = gridY + row * cellHeight;
+
+                if (detailSize < blockDetailThreshold) {
+                    g.setColor(TileColors.getElementColor(element));
+                    g.fillRect(x, y, cellWidth, cellHeight);
+                } else if (detailSize < lineDetailThreshold) {
+                    paintLines(g, element, x, y, cellWidth, cellHeight);
+                } else {
+                    g.drawImage(getTile(element, cellWidth, cellHeight), x, y, null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Paints a cell as its background with a plain colored line from its center to each direction
+     * of its path components. It only draws primitives in the {@link TileColors}, so it may be used to draw
+     * a board off the event dispatch thread, such as the previews of the levels.
+     *
+     * @param g          The graphics context for painting.
+     * @param element    The board element of the cell.
+     * @param x          The X coordinate of the cell.
+     * @param y          The Y coordinate of the cell.
+     * @param cellWidth  The width of the cell.
+     * @param cellHeight The height of the cell.
+     */
+    static void paintLines(Graphics g, BoardElement element, int x, int y, int cellWidth, int cellHeight) {
+        if (!element.getBoardElementType().equals(BoardElementType.CELL)) {
+            g.setColor(TileColors.BORDER);
+            g.fillRect(x, y, cellWidth, cellHeight);
+            return;
+        }
+
+        g.setColor(TileColors.EMPTY_CELL);
+        g.fillRect(x, y, cellWidth, cellHeight);
+
+        BoardCell cell = (BoardCell) element;
+        int thickness = Math.max(1, Math.min(cellWidth, cellHeight) / 4);
+        int left = x + (cellWidth - thickness) / 2;
+        int top = y + (cellHeight - thickness) / 2;
+
+        for (PathComponent pathComponent : cell.getPipe().getPathComponents()) {
+            g.setColor(TileColors.getColor(pathComponent.getColor()));
+
+            for (Direction direction : Direction.values()) {
+                if (!pathComponent.hasPort(direction)) continue;
+
+                switch (direction) {
+                    case TOP:
+                        g.fillRect(left, y, thickness, top + thickness - y);
+                        break;
+                    case RIGHT:
+                        g.fillRect(left, top, x + cellWidth - left, thickness);
+                        break;
+                    case BOTTOM:
+                        g.fillRect(left, top, thickness, y + cellHeight - top);
+                        break;
+                    case LEFT:
+                        g.fillRect(x, top, left + thickness - x, thickness);
+                        break;
+                }
+            }
+
+            if (cell.isSource()) {
+                g.fillRect(x + cellWidth / 4, y + cellHeight / 4, cellWidth - cellWidth / 2, cellHeight - cellHeight / 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package view;
+
+import java.awt.Graphics;
+import java.awt.Image;
+import java.awt.Point;
+import java.awt.Rectangle;
+
+import javax.swing.JComponent;
+import javax.swing.Timer;
+
+/**
+ * A lightweight layer drawing the image of a dragged pipe above the content of a window.
+ * It is meant to be installed as the glass pane of the window. The pointer location is recorded on every
+ * drag event, but the layer only repaints once per display frame, and only the areas covered by the
+ * previous and the new position of the image. A rejected drop is animated back to where the drag started.
+ *
+ * @author hamza-okutucu
+ */
+public class DragLayer extends JComponent {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The duration of the animation bringing the image back to its origin, in milliseconds.
+     */
+    private static final int RETURN_DURATION = 150;
+
+    private Image image;
+    private Point origin;
+    private Point location;
+    private Point returnStart;
+    private Rectangle paintedBounds;
+    private Timer frameTimer;
+    private Animation returnAnimation;
+
+    /**
+     * Constructs a new, hidden DragLayer.
+     */
+    public DragLayer() {
+        setOpaque(false);
+        setVisible(false);
+
+        frameTimer = new Timer(Animation.getFrameDelay(), e -> flushLocation());
+        frameTimer.setCoalesce(true);
+
+        returnAnimation = new Animation(RETURN_DURATION, this::updateReturn, this::endDrag);
+    }
+
+    /**
+     * Starts dragging an image. A return animation still running from a previous drag is cancelled.
+     *
+     * @param image    The image to drag.
+     * @param location The location of the center of the image, in the coordinates of the layer,
+     *                 where the image returns if the drop is rejected.
+     */
+    public void startDrag(Image image, Point location) {
+        if (returnAnimation.isRunning()) endDrag();
+
+        this.image = image;
+        this.origin = new Point(location);
+        this.location = new Point(location);
+        paintedBounds = null;
+
+        setVisible(true);
+        flushLocation();
+        frameTimer.start();
+    }
+
+    /**
+     * Moves the dragged image. The image is repainted at its new location on the next display frame.
+     *
+     * @param location The location of the center of the image, in the coordinates of the layer.
+     */
+    public void dragTo(Point location) {
+        if (image == null || returnAnimation.isRunning()) return;
+
+        this.location = new Point(location);
+    }
+
+    /**
+     * Rejects the drop: the image is animated back to its origin without blocking the event dispatch thread,
+     * and removed from the layer once it got there.
+     */
+    public void returnToOrigin() {
+        if (image == null) return;
+
+        returnStart = location;
+        returnAnimation.start();
+    }
+
+    /**
+     * Moves the image along the way back to its origin.
+     *
+     * @param progress The eased progress of the return animation, from 0 to 1.
+     */
+    private void updateReturn(double progress) {
+        int x = (int) Math.round(returnStart.x + (origin.x - returnStart.x) * progress);
+        int y = (int) Math.round(returnStart.y + (origin.y - returnStart.y) * progress);
+
+        location = new Point(x, y);
+    }
+
+    /**
+     * Stops dragging and removes the image from the layer.
+     */
+    public void endDrag() {
+        frameTimer.stop();
+        returnAnimation.stop();
+
+        if (paintedBounds != null) repaint(paintedBounds);
+
+        image = null;
+        origin = null;
+        location = null;
+        returnStart = null;
+        paintedBounds = null;
+        setVisible(false);
+    }
+
+    /**
+     * Checks whether an image is being dragged or returning to its origin.
+     *
+     * @return true if an image is displayed by the layer, otherwise false.
+     */
+    public boolean isDragging() {
+        return image != null;
+    }
+
+    /**
+     * Repaints the areas covered by the previous and the new position of the dragged image,
+     * if the image moved since the last frame.
+     */
+    private void flushLocation() {
+        if (image == null) return;
+
+        int width = image.getWidth(null);
+        int height = image.getHeight(null);
+        Rectangle bounds = new Rectangle(location.x - width / 2, location.y - height / 2, width, height);
+
+        if (bounds.equals(paintedBounds)) return;
+
+        if (paintedBounds != null) repaint(paintedBounds);
+        repaint(bounds);
+        paintedBounds = bounds;
+    }
+
+    /**
+     * Paints the dragged image at its last flushed position.
+     *
+     * @param g The graphics context for painting.
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (image == null || paintedBounds == null) return;
+
+        g.drawImage(image, paintedBounds.x, paintedBounds.y, null);
+    }
+}
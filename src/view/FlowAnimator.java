@@ -0,0 +1,345 @@
+package view;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.logging.Logger;
+
+import javax.swing.Timer;
+
+import model.BoardCell;
+import model.BoardChanges;
+import model.BoardElement;
+import model.LevelModel;
+
+/**
+ * Schedules the changes of the game board so that a recolor is displayed as water flowing through the pipes.
+ * The cells where pipes were placed or removed are displayed at once; the other changed cells keep displaying
+ * their previous state until the flow reaches them along the connections of the pipes, one step per cell.
+ * <p>
+ * Each frame reveals the cells reached by the flow and leaves the rendering of their tiles to the render phase
+ * of the game board, which spreads the cost of a large recolor over several frames. Changes arriving while
+ * an animation is playing are merged into it. The frames missed because the event dispatch thread was busy
+ * are logged at the end of each animation.
+ * It must only be used from the event dispatch thread.
+ *
+ * @author hamza-okutucu
+ */
+public class FlowAnimator {
+
+    /**
+     * The time taken by the flow to go from one cell to an adjacent one, in milliseconds.
+     */
+    private static final int STEP_DURATION = 40;
+
+    private static final Logger LOGGER = Logger.getLogger(FlowAnimator.class.getName());
+
+    private static final int[][] NEIGHBORS = {{-1, 0}, {0, 1}, {1, 0}, {0, -1}};
+
+    private BoardCanvas canvas;
+    private LevelModel model;
+    private Map<Integer, BoardElement> displayedElements;
+    private Map<Integer, Long> revealSteps;
+    private PriorityQueue<long[]> revealQueue;
+    private Timer frameTimer;
+    private long frameDelay;
+    private long startTime;
+    private long lastFrameTime;
+    private long droppedFrames;
+    private long animationDroppedFrames;
+
+    /**
+     * Constructs a new FlowAnimator for a game board component.
+     *
+     * @param canvas The component drawing the game board.
+     * @param model  The game model displayed by the component.
+     */
+    public FlowAnimator(BoardCanvas canvas, LevelModel model) {
+        this.canvas = canvas;
+        this.model = model;
+        displayedElements = new HashMap<>();
+        revealSteps = new HashMap<>();
+        revealQueue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+
+        int delay = Animation.getFrameDelay();
+        frameDelay = delay * 1_000_000L;
+        frameTimer = new Timer(delay, e -> nextFrame());
+        frameTimer.setCoalesce(true);
+    }
+
+    /**
+     * Gets the element to display in a cell, which is its previous state while the flow has not reached it.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     * @return The board element to display.
+     */
+    public BoardElement getDisplayedElement(int row, int col) {
+        BoardElement element = displayedElements.get(row * model.getWidth() + col);
+        return element != null ? element : model.getElement(row, col);
+    }
+
+    /**
+     * Checks whether an animation is playing.
+     *
+     * @return true if some cells are waiting for the flow, otherwise false.
+     */
+    public boolean isAnimating() {
+        return !revealSteps.isEmpty();
+    }
+
+    /**
+     * Gets the number of display frames missed because the event dispatch thread was busy.
+     *
+     * @return The number of dropped frames since the creation of the animator.
+     */
+    public long getDroppedFrameCount() {
+        return droppedFrames;
+    }
+
+    /**
+     * Plays the changes of an operation. The flow enters the changed pipes from the sources and from the pipes
+     * which already carried it, and follows the connections of the path components, one step per cell.
+     * The pipes cut off from the sources drain from the cells where pipes were placed or removed.
+     *
+     * @param changes The cells changed by the operation.
+     */
+    public void animate(BoardChanges changes) {
+        int width = model.getWidth();
+        List<int[]> cells = changes.getCells();
+        Map<Integer, Long> distances = new HashMap<>();
+        Deque<Integer> queue = new ArrayDeque<>();
+        int[] connectedPathComponents = new int[NEIGHBORS.length];
+
+        for (int[] cell : cells) {
+            int pathComponentCount = model.getPathComponentCount(cell[0], cell[1]);
+
+            for (int index = 0; index < pathComponentCount; index++) {
+                int connectedCount = model.getConnectedPathComponents(cell[0], cell[1], index, connectedPathComponents);
+
+                for (int i = 0; i < connectedCount; i++) {
+                    int neighbor = connectedPathComponents[i] / 2;
+
+                    if (!changes.contains(neighbor / width, neighbor % width)) {
+                        seed((cell[0] * width + cell[1]) * 2 + index, distances, queue);
+                        break;
+                    }
+                }
+            }
+        }
+
+        spread(changes, distances, queue, connectedPathComponents);
+
+        for (int[] cell : cells) {
+            if (!isPlacement(changes.getPreviousElement(cell[0], cell[1]), model.getElement(cell[0], cell[1]))) continue;
+
+            for (int[] offset : NEIGHBORS) {
+                int newRow = cell[0] + offset[0];
+                int newCol = cell[1] + offset[1];
+
+                if (newRow < 0 || newCol < 0 || newRow >= model.getHeight() || newCol >= width) continue;
+                if (!changes.contains(newRow, newCol)) continue;
+
+                seedCell(newRow, newCol, distances, queue);
+            }
+        }
+
+        spread(changes, distances, queue, connectedPathComponents);
+
+        for (int[] cell : cells) {
+            seedCell(cell[0], cell[1], distances, queue);
+            spread(changes, distances, queue, connectedPathComponents);
+        }
+
+        long currentStep = isAnimating() ? getCurrentStep() : 0;
+
+        for (int[] cell : cells) {
+            int index = cell[0] * width + cell[1];
+            long distance = getDistance(cell[0], cell[1], distances);
+            BoardElement previous = changes.getPreviousElement(cell[0], cell[1]);
+
+            if (distance == 0 || previous == null || isPlacement(previous, model.getElement(cell[0], cell[1]))) {
+                reveal(index);
+                continue;
+            }
+
+            displayedElements.putIfAbsent(index, previous);
+
+            long step = currentStep + distance;
+            Long scheduledStep = revealSteps.get(index);
+
+            if (scheduledStep == null || step < scheduledStep) {
+                revealSteps.put(index, step);
+                revealQueue.add(new long[] {step, index});
+            }
+        }
+
+        if (isAnimating() && !frameTimer.isRunning()) {
+            startTime = System.nanoTime();
+            lastFrameTime = startTime;
+            animationDroppedFrames = 0;
+            frameTimer.start();
+        }
+    }
+
+    /**
+     * Adds a path component at the start of the flow, unless the flow already reaches it.
+     *
+     * @param pathComponent The path component, numbered {@code (row * width + col) * 2 + index}.
+     * @param distances     The distance of the path components reached by the flow.
+     * @param queue         The path components whose connections are still to be followed.
+     */
+    private void seed(int pathComponent, Map<Integer, Long> distances, Deque<Integer> queue) {
+        if (distances.containsKey(pathComponent)) return;
+
+        distances.put(pathComponent, 0L);
+        queue.add(pathComponent);
+    }
+
+    /**
+     * Adds the path components of a cell at the start of the flow, unless the flow already reaches them.
+     *
+     * @param row       The row index.
+     * @param col       The column index.
+     * @param distances The distance of the path components reached by the flow.
+     * @param queue     The path components whose connections are still to be followed.
+     */
+    private void seedCell(int row, int col, Map<Integer, Long> distances, Deque<Integer> queue) {
+        int pathComponentCount = model.getPathComponentCount(row, col);
+
+        for (int index = 0; index < pathComponentCount; index++) {
+            seed((row * model.getWidth() + col) * 2 + index, distances, queue);
+        }
+    }
+
+    /**
+     * Spreads the flow from the queued path components to every connected path component of a changed cell,
+     * breadth first.
+     *
+     * @param changes                 The cells changed by the operation.
+     * @param distances               The distance of the path components reached by the flow.
+     * @param queue                   The path components whose connections are still to be followed.
+     * @param connectedPathComponents The array receiving the connected path components.
+     */
+    private void spread(BoardChanges changes, Map<Integer, Long> distances, Deque<Integer> queue,
+                        int[] connectedPathComponents) {
+        int width = model.getWidth();
+
+        while (!queue.isEmpty()) {
+            int pathComponent = queue.poll();
+            int cell = pathComponent / 2;
+            int connectedCount = model.getConnectedPathComponents(cell / width, cell % width, pathComponent % 2,
+                    connectedPathComponents);
+
+            for (int i = 0; i < connectedCount; i++) {
+                int connected = connectedPathComponents[i];
+                int connectedCell = connected / 2;
+
+                if (!changes.contains(connectedCell / width, connectedCell % width)) continue;
+                if (distances.containsKey(connected)) continue;
+
+                distances.put(connected, distances.get(pathComponent) + 1);
+                queue.add(connected);
+            }
+        }
+    }
+
+    /**
+     * Gets the distance of a cell from the start of the flow, which is reached by its nearest path component.
+     *
+     * @param row       The row index.
+     * @param col       The column index.
+     * @param distances The distance of the path components reached by the flow.
+     * @return The distance of the cell, 0 if it holds no pipe.
+     */
+    private long getDistance(int row, int col, Map<Integer, Long> distances) {
+        int pathComponentCount = model.getPathComponentCount(row, col);
+        long distance = pathComponentCount > 0 ? Long.MAX_VALUE : 0;
+
+        for (int index = 0; index < pathComponentCount; index++) {
+            Long pathComponentDistance = distances.get((row * model.getWidth() + col) * 2 + index);
+            if (pathComponentDistance != null) distance = Math.min(distance, pathComponentDistance);
+        }
+
+        return distance;
+    }
+
+    /**
+     * Checks whether a cell changed because a pipe was placed, removed or switched, rather than recolored.
+     *
+     * @param previous The element of the cell before the change.
+     * @param current  The element of the cell after the change.
+     * @return true if the pipe of the cell changed, otherwise false.
+     */
+    private boolean isPlacement(BoardElement previous, BoardElement current) {
+        if (!(previous instanceof BoardCell) || !(current instanceof BoardCell)) return true;
+
+        BoardCell previousCell = (BoardCell) previous;
+        BoardCell currentCell = (BoardCell) current;
+
+        return previousCell.isAttached() != currentCell.isAttached()
+                || previousCell.getPipe().getType() != currentCell.getPipe().getType()
+                || previousCell.getPipe().getRotations() != currentCell.getPipe().getRotations();
+    }
+
+    /**
+     * Gets the step reached by the flow since the start of the animation.
+     *
+     * @return The current step.
+     */
+    private long getCurrentStep() {
+        return (System.nanoTime() - startTime) / (STEP_DURATION * 1_000_000L);
+    }
+
+    /**
+     * Reveals the cells reached by the flow. Their tiles are rendered by the render phase of the game board.
+     */
+    private void nextFrame() {
+        long frameTime = System.nanoTime();
+        long missedFrames = (frameTime - lastFrameTime) / frameDelay - 1;
+
+        if (missedFrames > 0) {
+            droppedFrames += missedFrames;
+            animationDroppedFrames += missedFrames;
+        }
+        lastFrameTime = frameTime;
+
+        long currentStep = getCurrentStep();
+
+        while (!revealQueue.isEmpty() && revealQueue.peek()[0] <= currentStep) {
+            long[] entry = revealQueue.poll();
+            int index = (int) entry[1];
+            Long scheduledStep = revealSteps.get(index);
+
+            if (scheduledStep != null && scheduledStep == entry[0]) {
+                reveal(index);
+            }
+        }
+
+        if (revealQueue.isEmpty()) {
+            frameTimer.stop();
+
+            if (animationDroppedFrames > 0) {
+                LOGGER.info("Animation de l'ecoulement : " + animationDroppedFrames + " image(s) perdue(s)");
+            }
+        }
+    }
+
+    /**
+     * Displays the current state of a cell.
+     *
+     * @param index The index of the cell.
+     */
+    private void reveal(int index) {
+        int row = index / model.getWidth();
+        int col = index % model.getWidth();
+
+        displayedElements.remove(index);
+        revealSteps.remove(index);
+
+        canvas.invalidateCell(row, col);
+    }
+}
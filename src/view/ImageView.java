@@ -7,58 +7,56 @@ import java.awt.Image;
 import model.BoardElement;
 
 /**
- * A custom component for displaying images associated with a game board element.
+ * A custom component for displaying the image of a game board element.
  *
  * @author hamza-okutucu
  */
 public class ImageView extends Component {
 	
 	private static final long serialVersionUID = 1L;
-	private Image image;
     private BoardElement element;
     private boolean moveable;
+    private int badge;
 
     /**
      * Constructs an empty ImageView.
-     * The image, board element, and moveable status are set to their default values.
+     * The board element and moveable status are set to their default values.
      */
     public ImageView() {
-    	image = null;
     	element = null;
     	moveable = true;
+    	badge = -1;
     }
     
     /**
-     * Constructs an ImageView with the specified image, board element, and moveable status.
+     * Constructs an ImageView with the specified board element and moveable status.
      *
-     * @param image    The image to display in the view.
-     * @param element  The associated game board element.
+     * @param element  The game board element to display in the view.
      * @param moveable Indicates whether the view is moveable.
      */
-    public ImageView(Image image, BoardElement element, boolean moveable) {
-        this.image = image;
+    public ImageView(BoardElement element, boolean moveable) {
         this.element = element;
         this.moveable = moveable;
+        this.badge = -1;
     }
 
     /**
-     * Paints the image on the component.
+     * Paints the image of the element on the component. The tile is rendered from the vector
+     * assets at the size of the component, in device pixels on scaled displays.
      *
      * @param g The graphics context for painting.
      */
     public void paint(Graphics g) {
-        g.drawImage(image, 0, 0, getWidth(), getHeight(), this);
+        if (element == null) return;
+        
+        Image tile = TileRenderer.getTile(element, getWidth(), getHeight(), getGraphicsConfiguration());
+        g.drawImage(tile, 0, 0, this);
+        
+        if (badge >= 0) {
+            QuantityBadges.paintBadge(g, badge, getHeight());
+        }
     }
     
-    /**
-     * Gets the image displayed by this ImageView.
-     *
-     * @return The image associated with the view.
-     */
-    public Image getImage() {
-    	return image;
-    }
-
     /**
      * Gets the board element associated with this ImageView.
      *
@@ -77,15 +75,6 @@ public class ImageView extends Component {
     	return moveable;
     } 
 
-    /**
-     * Sets the image to be displayed by this ImageView.
-     *
-     * @param image The new image to display.
-     */
-    public void setImage(Image image) {
-    	this.image = image;
-    }
-    
     /**
      * Sets the board element associated with this ImageView.
      *
@@ -103,5 +92,22 @@ public class ImageView extends Component {
     public void setMoveable(boolean moveable) {
     	this.moveable = moveable;
     }
+    
+    /**
+     * Gets the quantity displayed over the image of this ImageView.
+     *
+     * @return The displayed quantity, or -1 if no quantity is displayed.
+     */
+    public int getBadge() {
+    	return badge;
+    }
+    
+    /**
+     * Sets the quantity displayed over the image of this ImageView.
+     *
+     * @param badge The quantity to display, or -1 to display no quantity.
+     */
+    public void setBadge(int badge) {
+    	this.badge = badge;
+    }
 }
-
@@ -0,0 +1,157 @@
+package view;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+
+import javax.imageio.ImageIO;
+import javax.swing.SwingUtilities;
+
+import model.BoardElement;
+import model.LevelModel;
+import util.AssetsCache;
+
+/**
+ * Renders the previews of the levels displayed in the menu.
+ * The previews are rendered in parallel on a small pool of background threads, so that the menu never waits
+ * for them, and are stored in the on-disk cache, keyed by a hash of the content of the level file.
+ * The cells of a preview are drawn as the colored lines of their pipes, like the game board at low zoom levels,
+ * or as plain color blocks when they are too small for lines, so that the workers never touch the tiles
+ * shared with the views.
+ *
+ * @author hamza-okutucu
+ */
+public class LevelThumbnails {
+
+    /**
+     * The maximum width and height of a preview in pixels.
+     */
+    public static final int THUMBNAIL_SIZE = 36;
+
+    /**
+     * The maximum number of previews rendered at the same time.
+     */
+    private static final int MAX_WORKERS = 3;
+
+    /**
+     * The smallest cell size at which the pipes of a preview are drawn as lines rather than color blocks.
+     */
+    private static final int MIN_LINE_CELL_SIZE = 3;
+
+    private static LevelThumbnails instance;
+
+    private ExecutorService workers;
+
+    /**
+     * Initializes the pool of background threads rendering the previews.
+     */
+    private LevelThumbnails() {
+        int workerCount = Math.max(1, Math.min(MAX_WORKERS, Runtime.getRuntime().availableProcessors() - 1));
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "level-thumbnails");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        };
+
+        workers = Executors.newFixedThreadPool(workerCount, threadFactory);
+    }
+
+    /**
+     * Gets the preview renderer shared by the menus.
+     *
+     * @return The shared preview renderer.
+     */
+    public static synchronized LevelThumbnails getInstance() {
+        if (instance == null) {
+            instance = new LevelThumbnails();
+        }
+        return instance;
+    }
+
+    /**
+     * Requests the preview of a level. The preview is loaded from the disk cache or rendered in the background,
+     * and handed to the callback on the event dispatch thread once it is ready.
+     *
+     * @param levelFile The level file.
+     * @param callback  The callback receiving the preview.
+     */
+    public void requestThumbnail(File levelFile, Consumer<Image> callback) {
+        workers.execute(() -> {
+            Image thumbnail = loadThumbnail(levelFile);
+
+            if (thumbnail != null) {
+                SwingUtilities.invokeLater(() -> callback.accept(thumbnail));
+            }
+        });
+    }
+
+    /**
+     * Loads the preview of a level from the disk cache, or renders it and stores it in the disk cache.
+     *
+     * @param levelFile The level file.
+     * @return The preview of the level, or null if the level cannot be read.
+     */
+    private Image loadThumbnail(File levelFile) {
+        try {
+            byte[] content = Files.readAllBytes(levelFile.toPath());
+            File cacheFile = AssetsCache.getCacheFile("thumbnail-lines-" + THUMBNAIL_SIZE + "-" + AssetsCache.hashBytes(content) + ".png");
+
+            if (cacheFile != null && cacheFile.isFile()) {
+                BufferedImage thumbnail = ImageIO.read(cacheFile);
+                if (thumbnail != null) return thumbnail;
+            }
+
+            BufferedImage thumbnail = renderThumbnail(new LevelModel(levelFile));
+
+            if (cacheFile != null) {
+                ByteArrayOutputStream png = new ByteArrayOutputStream();
+                ImageIO.write(thumbnail, "png", png);
+                AssetsCache.writeAtomically(cacheFile, png.toByteArray());
+            }
+
+            return thumbnail;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Renders the game board of a level as colored lines, with cells sized so that the board fits in a preview.
+     *
+     * @param model The model of the level.
+     * @return The preview of the level.
+     */
+    private BufferedImage renderThumbnail(LevelModel model) {
+        int cellSize = Math.max(1, THUMBNAIL_SIZE / Math.max(model.getWidth(), model.getHeight()));
+        BufferedImage thumbnail = new BufferedImage(cellSize * model.getWidth(), cellSize * model.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+
+        for (int row = 0; row < model.getHeight(); row++) {
+            for (int col = 0; col < model.getWidth(); col++) {
+                BoardElement element = model.getElement(row, col);
+                if (element == null) continue;
+
+                if (cellSize >= MIN_LINE_CELL_SIZE) {
+                    BoardCanvas.paintLines(graphics, element, col * cellSize, row * cellSize, cellSize, cellSize);
+                } else {
+                    graphics.setColor(TileColors.getElementColor(element));
+                    graphics.fillRect(col * cellSize, row * cellSize, cellSize, cellSize);
+                }
+            }
+        }
+
+        graphics.dispose();
+
+        return thumbnail;
+    }
+}
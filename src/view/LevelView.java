@@ -3,22 +3,25 @@ package view;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
+import java.awt.GraphicsEnvironment;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.GridLayout;
-import java.awt.Image;
+import java.awt.Insets;
+import java.awt.Point;
+import java.awt.Rectangle;
 
 import javax.swing.JButton;
 import javax.swing.JFrame;
 import javax.swing.JPanel;
+import javax.swing.JScrollPane;
 
 import model.BoardCell;
-import model.BoardElement;
+import model.BoardChanges;
 import model.LevelModel;
-import model.enumeration.BoardElementType;
 import model.enumeration.PathComponentColor;
 import model.enumeration.PipeType;
-import util.AssetsUtil;
+import util.PipeAtlas;
 
 /**
  * The graphical user interface for displaying a game board and controls.
@@ -28,16 +31,37 @@ import util.AssetsUtil;
 public class LevelView extends JFrame {
     
 	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * The smallest cell size used to fit the board in the screen. Larger boards are scrolled.
+	 */
+	private static final int MIN_FITTING_CELL_SIZE = 24;
+	
+	/**
+	 * The height reserved for the buttons below the game board.
+	 */
+	private static final int BUTTONS_HEIGHT = 60;
+	
+	/**
+	 * The number of rows or columns of the board from which a minimap of the board is displayed.
+	 */
+	private static final int MINIMAP_THRESHOLD = 20;
+	
 	private JPanel pipeStock;
-    private JPanel gameBoard;
+    private BoardCanvas gameBoard;
+    private JScrollPane gameBoardScrollPane;
     private JPanel buttons;
+    private Minimap minimap;
+    private DragLayer dragLayer;
     private ImageView[][] pipeStockImageViews;
-    private ImageView[][] gameBoardImageViews;
+    private BoardCell[][] pipeStockCells;
+    private int[] pipeStockQuantities;
     private JButton undo;
     private JButton redo;
     private JButton reset;
     private JButton levels;
     private LevelModel model;
+    private int cellSize;
 
     /**
      * Constructs a new LevelView for the given game model.
@@ -51,9 +75,15 @@ public class LevelView extends JFrame {
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLayout(new GridBagLayout());
          
+        cellSize = getFittingCellSize();
+        PipeAtlas.setLayoutTileSizes(cellSize, getDeviceCellSize());
         pipeStock = createPipeStock();
         gameBoard = createGameBoard();
+        gameBoardScrollPane = createGameBoardScrollPane();
+        minimap = hasMinimap() ? createMinimap() : null;
         buttons = createButtons();
+        dragLayer = new DragLayer();
+        setGlassPane(dragLayer);
 
         GridBagConstraints gc = new GridBagConstraints();
         gc.fill = GridBagConstraints.BOTH;
@@ -62,15 +92,23 @@ public class LevelView extends JFrame {
 
         gc.gridx = 0;
         gc.gridy = 0;
-        add(gameBoard, gc);
+        add(gameBoardScrollPane, gc);
         
         gc.gridx = 1;
         gc.gridy = 0;
         add(pipeStock, gc);
         
+        if (minimap != null) {
+            GridBagConstraints minimapConstraints = new GridBagConstraints();
+            minimapConstraints.gridx = 2;
+            minimapConstraints.gridy = 0;
+            minimapConstraints.anchor = GridBagConstraints.NORTH;
+            add(minimap, minimapConstraints);
+        }
+        
         gc.gridx = 0;
         gc.gridy = 1;
-        gc.gridwidth = 2;
+        gc.gridwidth = GridBagConstraints.REMAINDER;
         add(buttons, gc);
         
 		pack();
@@ -89,12 +127,14 @@ public class LevelView extends JFrame {
         
         stock.setBackground(Color.black);
 
-        int gameBoardRows = model.getHeight();
+        int gameBoardRows = Math.min(model.getHeight(), Math.max(1, getAvailableBoardSize().height / cellSize));
         int pipeStockGridRows = Math.max(gameBoardRows, 6);
         
         stock.setLayout(new GridLayout(pipeStockGridRows, 2));
         
         pipeStockImageViews = new ImageView[pipeStockGridRows][2];
+        pipeStockCells = new BoardCell[12][2];
+        pipeStockQuantities = new int[12];
 
         for (int row = 0; row < pipeStockGridRows; row++) {
             for (int col = 0; col < 2; col++) {
@@ -107,17 +147,17 @@ public class LevelView extends JFrame {
             		PipeType type = getPipeTypeAt(row, col);
             		int rotations = getPipeRotationsAt(row, col);
             		int quantity = getPipeQuantity(type, rotations);
-                    Image image = cell.getImage();
-                    image = writeQuantityOn(image, quantity);
-                    ImageView imageView = new ImageView(image, cell, quantity == 0);
+                    ImageView imageView = new ImageView(cell, quantity == 0);
+                    imageView.setBadge(quantity);
                     pipeStockImageViews[row][col] = imageView;
+                    pipeStockQuantities[row * 2 + col] = quantity;
                     stock.add(imageView);
             	}
             }
         }
 
-        int stockWidth = 70 * 2;
-        int stockHeight = 70 * pipeStockGridRows;
+        int stockWidth = cellSize * 2;
+        int stockHeight = cellSize * pipeStockGridRows;
         stock.setPreferredSize(new Dimension(stockWidth, stockHeight));
 
         return stock;
@@ -133,18 +173,27 @@ public class LevelView extends JFrame {
     }
 
     /**
-     * Creates a BoardCell instance based on the given row and column, using information about the pipe type,
-     * rotations, and color obtained from other methods.
+     * Gets the BoardCell displayed at the given row and column of the pipe stock, using information about the pipe type,
+     * rotations, and color obtained from other methods. The cells are created once for each color and then reused,
+     * so they must be copied before being placed on the game board.
      *
      * @param row The row in the grid.
      * @param col The column in the grid.
-     * @return A new BoardCell instance representing a game board cell.
+     * @return The BoardCell instance representing the pipe stock cell.
      */
     private BoardCell getBoardCellAt(int row, int col) {
-        PipeType type = getPipeTypeAt(row, col);
-        int rotations = getPipeRotationsAt(row, col);
         PathComponentColor color = getPipeColorAt(row, col);
-        return new BoardCell(type, color, rotations, false);
+        int colorIndex = color == PathComponentColor.GRAY ? 0 : 1;
+        BoardCell cell = pipeStockCells[row * 2 + col][colorIndex];
+        
+        if (cell == null) {
+            PipeType type = getPipeTypeAt(row, col);
+            int rotations = getPipeRotationsAt(row, col);
+            cell = new BoardCell(type, color, rotations, false);
+            pipeStockCells[row * 2 + col][colorIndex] = cell;
+        }
+        
+        return cell;
     }
     
     /**
@@ -202,70 +251,146 @@ public class LevelView extends JFrame {
     }
     
     /**
-     * Writes the quantity value on top of the given image, indicating the number of pipes available.
+     * Returns the component representing the game board.
      *
-     * @param image The image to which the quantity is added.
-     * @param quantity The quantity of pipes to display.
-     * @return An image with the quantity displayed on it.
+     * @return The BoardCanvas drawing the game board elements.
      */
-    private Image writeQuantityOn(Image image, int quantity) {
-    	return AssetsUtil.writeNumberOnImage(image, quantity, 0, image.getHeight(null) - 5);
+    public BoardCanvas getBoardPanel() {
+    	return gameBoard;
     }
     
     /**
-     * Returns the panel representing the game board.
+     * Returns the scroll pane displaying the visible part of the game board.
      *
-     * @return The JPanel containing the game board elements.
+     * @return The JScrollPane containing the game board.
      */
-    public JPanel getBoardPanel() {
-    	return gameBoard;
+    public JScrollPane getBoardScrollPane() {
+    	return gameBoardScrollPane;
+    }
+    
+    /**
+     * Returns the minimap of the game board.
+     *
+     * @return The Minimap of the game board, or null if the board is too small to have one.
+     */
+    public Minimap getMinimap() {
+    	return minimap;
+    }
+
+    /**
+     * Gets the size of the cells of the game board and of the pipe stock, chosen so that the window fits
+     * in the screen, down to a minimum size below which the board is scrolled.
+     *
+     * @return The size of a cell in pixels.
+     */
+    private int getFittingCellSize() {
+        Dimension availableSize = getAvailableBoardSize();
+        int gridRows = Math.max(model.getHeight(), 6);
+        int fittingCellSize = Math.min(availableSize.width / model.getWidth(), availableSize.height / gridRows);
+        
+        return Math.max(MIN_FITTING_CELL_SIZE, Math.min(BoardCanvas.DEFAULT_CELL_SIZE, fittingCellSize));
     }
 
     /**
-     * Creates the panel for the game board display.
+     * Gets the size of the fitted cells in device pixels, on the screen the window is created on.
      *
-     * @return A panel displaying the game board elements.
+     * @return The size of a cell in device pixels.
      */
-    private JPanel createGameBoard() {
-        JPanel gameBoard = new JPanel();
+    private int getDeviceCellSize() {
+        if (GraphicsEnvironment.isHeadless()) return cellSize;
 
-        gameBoard.setBackground(Color.black);
+        return (int) Math.round(cellSize * getGraphicsConfiguration().getDefaultTransform().getScaleX());
+    }
 
+    /**
+     * Creates the component for the game board display.
+     *
+     * @return A component drawing the game board elements.
+     */
+    private BoardCanvas createGameBoard() {
         int stockGridRows = ((GridLayout) pipeStock.getLayout()).getRows();
         int gameBoardGridHeight = Math.max(stockGridRows, model.getHeight());
 
-        gameBoard.setLayout(new GridLayout(gameBoardGridHeight, model.getWidth()));
+        BoardCanvas gameBoard = new BoardCanvas(model, gameBoardGridHeight, model.getWidth());
+        gameBoard.setCellSize(cellSize);
+
+        return gameBoard;
+    }
+    
+    /**
+     * Creates the scroll pane displaying the game board, no larger than the space available on the screen.
+     *
+     * @return A scroll pane containing the game board.
+     */
+    private JScrollPane createGameBoardScrollPane() {
+        JScrollPane scrollPane = new JScrollPane(gameBoard);
         
-        gameBoardImageViews = new ImageView[gameBoardGridHeight][model.getWidth()];
+        scrollPane.setBorder(null);
+        scrollPane.getViewport().setBackground(Color.black);
         
-        for (int row = 0; row < gameBoardGridHeight; row++) {
-			for (int col = 0; col < model.getWidth(); col++) {
-				if (row >= model.getHeight()) {
-            		ImageView imageView = new ImageView();
-            		gameBoardImageViews[row][col] = imageView;
-					gameBoard.add(imageView);
-				} else {
-	                BoardElement element = model.getElement(row, col);
-	                Image pipeImage = element.getImage();
-	                boolean moveable = true;
-	                if (element.getBoardElementType().equals(BoardElementType.CELL)) {
-	                	BoardCell cell = (BoardCell)element;
-	                	if (!cell.isSource() && !cell.isEmpty() && !cell.isAttached()) {
-	                		moveable = false;
-	                	}
-	                }
-	                ImageView imageView = new ImageView(pipeImage, element, moveable);
-	                gameBoardImageViews[row][col] = imageView;
-	                gameBoard.add(imageView);
-                }
-			}
-		}
+        Dimension availableSize = getAvailableBoardSize();
+        Dimension boardSize = gameBoard.getPreferredSize();
         
-        int stockWidth = 70 * model.getWidth();
-        int stockHeight = 70 * gameBoardGridHeight;
-        gameBoard.setPreferredSize(new Dimension(stockWidth, stockHeight));
-
-        return gameBoard;
+        if (boardSize.width > availableSize.width || boardSize.height > availableSize.height) {
+            scrollPane.setPreferredSize(new Dimension(Math.min(boardSize.width, availableSize.width), Math.min(boardSize.height, availableSize.height)));
+        }
+        
+        return scrollPane;
+    }
+    
+    /**
+     * Checks whether the board is large enough to be displayed with a minimap.
+     *
+     * @return true if a minimap is displayed next to the board, otherwise false.
+     */
+    private boolean hasMinimap() {
+        return model.getWidth() >= MINIMAP_THRESHOLD || model.getHeight() >= MINIMAP_THRESHOLD;
+    }
+    
+    /**
+     * Creates the minimap of the game board, repainted whenever the viewport of the board moves.
+     *
+     * @return A minimap of the game board.
+     */
+    private Minimap createMinimap() {
+        Minimap minimap = new Minimap(model, gameBoard);
+        
+        gameBoardScrollPane.getViewport().addChangeListener(e -> minimap.repaint());
+        
+        return minimap;
+    }
+    
+    /**
+     * Gets the space of the screen available for the game board, next to the pipe stock at its largest
+     * and the minimap, and above the buttons.
+     *
+     * @return The available size in pixels.
+     */
+    private Dimension getAvailableBoardSize() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new Dimension(Integer.MAX_VALUE, Integer.MAX_VALUE);
+        }
+        
+        Rectangle screenBounds = GraphicsEnvironment.getLocalGraphicsEnvironment().getMaximumWindowBounds();
+        Insets frameInsets = getInsets();
+        
+        int width = screenBounds.width - frameInsets.left - frameInsets.right - BoardCanvas.DEFAULT_CELL_SIZE * 2;
+        
+        if (hasMinimap()) {
+            width -= Minimap.MAX_SIZE;
+        }
+        int height = screenBounds.height - frameInsets.top - frameInsets.bottom - BUTTONS_HEIGHT;
+        
+        return new Dimension(Math.max(1, width), Math.max(1, height));
+    }
+    
+    /**
+     * Returns the layer drawing the dragged pipes above the content of the window.
+     *
+     * @return The DragLayer installed as the glass pane of the window.
+     */
+    public DragLayer getDragLayer() {
+    	return dragLayer;
     }
     
     /**
@@ -278,12 +403,22 @@ public class LevelView extends JFrame {
     }
     
     /**
-     * Gets the ImageView objects representing the game board elements.
+     * Gets the cell of the pipe stock at a point of the stock panel, computed from the grid layout of the panel.
      *
-     * @return A 2D array of ImageView objects for the game board.
+     * @param point The point in the coordinates of the stock panel.
+     * @return A Point whose X is the column and Y is the row of the cell, the nearest one if the point is
+     *         in the margins of the grid.
      */
-    public ImageView[][] getGameBoardImageViews() {
-    	return gameBoardImageViews;
+    public Point getStockCellAt(Point point) {
+        GridLayout layout = (GridLayout) pipeStock.getLayout();
+        int rows = layout.getRows();
+        int cols = layout.getColumns();
+        int cellWidth = Math.max(1, pipeStock.getWidth() / cols);
+        int cellHeight = Math.max(1, pipeStock.getHeight() / rows);
+        int col = Math.floorDiv(point.x - (pipeStock.getWidth() - cellWidth * cols) / 2, cellWidth);
+        int row = Math.floorDiv(point.y - (pipeStock.getHeight() - cellHeight * rows) / 2, cellHeight);
+        
+        return new Point(Math.max(0, Math.min(cols - 1, col)), Math.max(0, Math.min(rows - 1, row)));
     }
     
     /**
@@ -359,48 +494,52 @@ public class LevelView extends JFrame {
     }
     
     /**
-     * Refreshes the view components to match the game model's state.
+     * Refreshes the view components to match the game model's state after an operation.
+     * Only the cells whose visual state changed are repainted.
+     *
+     * @param changes The cells changed by the operation.
      */
-    public void refresh() {
+    public void refresh(BoardChanges changes) {
         refreshPipeStock();
-        refreshGameBoard();
-        repaint();
+        refreshGameBoard(changes);
     }
 
 	/**
-	 * Refreshes the pipe stock display by updating the images, elements, and moveability states of the pipe stock cells.
+	 * Refreshes the pipe stock display by updating the elements and moveability states of the pipe stock cells
+	 * whose quantity changed. The quantities are drawn over the cached pipe tiles at paint time.
 	 */
     private void refreshPipeStock() {
         for (int row = 0; row < 6; row++) {
             for (int col = 0; col < 2; col++) {
-            	if (row >= 6) continue;
-            	BoardCell cell = getBoardCellAt(row, col);
                 PipeType type = getPipeTypeAt(row, col);
                 int rotations = getPipeRotationsAt(row, col);
                 int quantity = getPipeQuantity(type, rotations);
-                Image image = cell.getImage();
-                image = writeQuantityOn(image, quantity);
-                pipeStockImageViews[row][col].setImage(image);
-                pipeStockImageViews[row][col].setElement(cell);
-                pipeStockImageViews[row][col].setMoveable(quantity == 0);
+                
+                if (quantity == pipeStockQuantities[row * 2 + col]) continue;
+                
+                BoardCell cell = getBoardCellAt(row, col);
+                ImageView imageView = pipeStockImageViews[row][col];
+                imageView.setElement(cell);
+                imageView.setMoveable(quantity == 0);
+                imageView.setBadge(quantity);
+                imageView.repaint();
+                pipeStockQuantities[row * 2 + col] = quantity;
             }
         }
     }
     
 
 	/**
-	 * Refreshes the game board display by updating the images, elements, and moveability states of the game board cells.
+	 * Refreshes the game board display, which is drawn from the state of the model, by playing the changed cells
+	 * as water flowing through the pipes, and updates the changed cells of the minimap.
+	 *
+	 * @param changes The cells changed by the operation.
 	 */
-    private void refreshGameBoard() {
-        for (int row = 1; row < model.getHeight() - 1; row++) {
-            for (int col = 1; col < model.getWidth() - 1; col++) {
-                ImageView imageView = gameBoardImageViews[row][col];
-            	BoardCell cell = (BoardCell) model.getElement(row, col);
-                Image image = cell.getImage();
-                imageView.setImage(image);
-                imageView.setElement(cell);
-                imageView.setMoveable(cell.isEmpty() || cell.isAttached());
-            }
+    private void refreshGameBoard(BoardChanges changes) {
+        gameBoard.animateChanges(changes);
+        
+        if (minimap != null) {
+            minimap.update(changes);
         }
     }
-}
\ No newline at end of file
+}
@@ -3,15 +3,19 @@ package view;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.GridLayout;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JFrame;
 
 /**
  * The MenuView class represents the graphical user interface for selecting a level in the game.
- * It displays a list of available levels as buttons that the player can choose from.
+ * It displays a list of available levels as buttons that the player can choose from, each with a preview
+ * of the level which is displayed once it has been rendered.
  *
  * @author hamza-okutucu
  */
@@ -39,8 +43,10 @@ public class MenuView extends JFrame {
      * @param levelFileNames A list of level file names that will be displayed as buttons.
      */
     public void setMenu(List<String> levelFileNames) {
+        ImageIcon placeholder = new ImageIcon(new BufferedImage(LevelThumbnails.THUMBNAIL_SIZE, LevelThumbnails.THUMBNAIL_SIZE, BufferedImage.TYPE_INT_ARGB));
+        
         for (String levelFileName : levelFileNames) {
-            JButton levelButton = new JButton(levelFileName);
+            JButton levelButton = new JButton(levelFileName, placeholder);
             Font buttonFont = new Font("Arial", Font.BOLD, 18);
             levelButton.setBackground(new Color(245, 245, 220));
             levelButton.setFont(buttonFont);
@@ -51,6 +57,20 @@ public class MenuView extends JFrame {
         setLayout(new GridLayout(levelButtons.size(), 1));
     }
 
+    /**
+     * Displays the preview of a level in its button.
+     *
+     * @param levelFileName The level file name displayed by the button.
+     * @param thumbnail     The preview of the level.
+     */
+    public void setLevelThumbnail(String levelFileName, Image thumbnail) {
+        for (JButton levelButton : levelButtons) {
+            if (levelButton.getText().equals(levelFileName)) {
+                levelButton.setIcon(new ImageIcon(thumbnail));
+            }
+        }
+    }
+
     /**
      * Returns a list of buttons representing the available levels in the menu.
      *
@@ -0,0 +1,189 @@
+package view;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Point;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import javax.swing.JComponent;
+
+import model.BoardChanges;
+import model.BoardElement;
+import model.LevelModel;
+
+/**
+ * An overview of the whole game board, drawing each cell as a small block of the color of its pipe,
+ * with the area displayed by the board viewport outlined.
+ * The overview is kept in an image holding one pixel per cell, which is only updated for the cells changed
+ * by each operation, and scaled to the size of the minimap when painted.
+ *
+ * @author hamza-okutucu
+ */
+public class Minimap extends JComponent {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The maximum width and height of the minimap in pixels.
+     */
+    public static final int MAX_SIZE = 200;
+
+    /**
+     * The maximum size of a cell of the minimap in pixels. The cells of the boards larger than the minimap
+     * are drawn in less than a pixel.
+     */
+    private static final int MAX_CELL_SIZE = 4;
+
+    private static final Color VIEWPORT_COLOR = Color.white;
+
+    private LevelModel model;
+    private BoardCanvas canvas;
+    private BufferedImage image;
+    private double cellSize;
+
+    /**
+     * Constructs a new Minimap of a game board.
+     *
+     * @param model  The game model to display.
+     * @param canvas The component drawing the game board, whose visible area is outlined.
+     */
+    public Minimap(LevelModel model, BoardCanvas canvas) {
+        this.model = model;
+        this.canvas = canvas;
+
+        int width = model.getWidth();
+        int height = model.getHeight();
+
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        cellSize = Math.min(MAX_CELL_SIZE, MAX_SIZE / (double) Math.max(width, height));
+        if (cellSize >= 1) cellSize = Math.floor(cellSize);
+
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                updateCell(row, col);
+            }
+        }
+
+        setOpaque(true);
+        setBackground(Color.black);
+        setPreferredSize(new Dimension(getImageWidth(), getImageHeight()));
+    }
+
+    /**
+     * Updates the cells changed by an operation, and repaints the area covering them.
+     *
+     * @param changes The cells changed by the operation.
+     */
+    public void update(BoardChanges changes) {
+        List<int[]> cells = changes.getCells();
+        if (cells.isEmpty()) return;
+
+        int minRow = Integer.MAX_VALUE;
+        int minCol = Integer.MAX_VALUE;
+        int maxRow = Integer.MIN_VALUE;
+        int maxCol = Integer.MIN_VALUE;
+
+        for (int[] cell : cells) {
+            updateCell(cell[0], cell[1]);
+
+            minRow = Math.min(minRow, cell[0]);
+            minCol = Math.min(minCol, cell[1]);
+            maxRow = Math.max(maxRow, cell[0]);
+            maxCol = Math.max(maxCol, cell[1]);
+        }
+
+        int x = getGridX() + (int) Math.floor(minCol * cellSize);
+        int y = getGridY() + (int) Math.floor(minRow * cellSize);
+
+        repaint(x, y, getGridX() + (int) Math.ceil((maxCol + 1) * cellSize) - x, getGridY() + (int) Math.ceil((maxRow + 1) * cellSize) - y);
+    }
+
+    /**
+     * Updates the pixel of a cell with the color of its element.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     */
+    private void updateCell(int row, int col) {
+        BoardElement element = model.getElement(row, col);
+        Color color = element != null ? TileColors.getElementColor(element) : getBackground();
+
+        image.setRGB(col, row, color.getRGB());
+    }
+
+    /**
+     * Gets the board position at the given point of the minimap.
+     *
+     * @param point The point in the coordinates of the component.
+     * @return A Point whose X is the column and Y is the row of the board position, the nearest one
+     *         if the point is outside of the board.
+     */
+    public Point getCellAt(Point point) {
+        int col = (int) Math.floor((point.x - getGridX()) / cellSize);
+        int row = (int) Math.floor((point.y - getGridY()) / cellSize);
+
+        return new Point(Math.max(0, Math.min(model.getWidth() - 1, col)), Math.max(0, Math.min(model.getHeight() - 1, row)));
+    }
+
+    /**
+     * Gets the width of the board drawn by the minimap.
+     *
+     * @return The width of the board in pixels.
+     */
+    private int getImageWidth() {
+        return Math.max(1, (int) Math.round(image.getWidth() * cellSize));
+    }
+
+    /**
+     * Gets the height of the board drawn by the minimap.
+     *
+     * @return The height of the board in pixels.
+     */
+    private int getImageHeight() {
+        return Math.max(1, (int) Math.round(image.getHeight() * cellSize));
+    }
+
+    /**
+     * Gets the horizontal offset of the board, which is centered in the component.
+     *
+     * @return The X coordinate of the left edge of the board.
+     */
+    private int getGridX() {
+        return (getWidth() - getImageWidth()) / 2;
+    }
+
+    /**
+     * Gets the vertical offset of the board, which is centered in the component.
+     *
+     * @return The Y coordinate of the top edge of the board.
+     */
+    private int getGridY() {
+        return (getHeight() - getImageHeight()) / 2;
+    }
+
+    /**
+     * Paints the overview of the board and outlines the area displayed by the board viewport.
+     *
+     * @param g The graphics context for painting.
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(getBackground());
+        g.fillRect(0, 0, getWidth(), getHeight());
+
+        int x = getGridX();
+        int y = getGridY();
+
+        g.drawImage(image, x, y, getImageWidth(), getImageHeight(), null);
+
+        Rectangle2D visibleCells = canvas.getVisibleCells();
+        if (visibleCells.isEmpty()) return;
+
+        g.setColor(VIEWPORT_COLOR);
+        g.drawRect(x + (int) Math.floor(visibleCells.getX() * cellSize), y + (int) Math.floor(visibleCells.getY() * cellSize),
+                Math.max(1, (int) Math.ceil(visibleCells.getWidth() * cellSize) - 1), Math.max(1, (int) Math.ceil(visibleCells.getHeight() * cellSize) - 1));
+    }
+}
@@ -0,0 +1,90 @@
+package view;
+
+import java.awt.Dimension;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.image.AbstractMultiResolutionImage;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * A tile displayed at a logical size, holding one variant per device resolution it is drawn at.
+ * On a scaled display, Java2D asks for the variant matching the device size of the tile, which is rendered
+ * from the atlas nearest to that size the first time it is requested, so drawing the tile is a plain
+ * copy instead of an upscaling of the logical-size raster.
+ * The variants may be requested from any thread, such as image observers or printing, and are rendered
+ * through the thread-safe {@link TileRenderer} and {@link TileScaler}.
+ *
+ * @author hamza-okutucu
+ */
+public class MultiResolutionTile extends AbstractMultiResolutionImage {
+
+    private int width;
+    private int height;
+    private IntFunction<Image> renderer;
+    private GraphicsConfiguration configuration;
+    private Map<Dimension, Image> variants;
+
+    /**
+     * Constructs a new MultiResolutionTile without any variant yet.
+     *
+     * @param width         The logical width of the tile.
+     * @param height        The logical height of the tile.
+     * @param renderer      The function rendering the square tile of a given size.
+     * @param configuration The graphics configuration of the destination, or null if unknown.
+     */
+    public MultiResolutionTile(int width, int height, IntFunction<Image> renderer, GraphicsConfiguration configuration) {
+        this.width = width;
+        this.height = height;
+        this.renderer = renderer;
+        this.configuration = configuration;
+        this.variants = new LinkedHashMap<>();
+    }
+
+    /**
+     * Gets the variant of the tile at its logical size.
+     *
+     * @return The logical-size variant.
+     */
+    @Override
+    protected Image getBaseImage() {
+        return getResolutionVariant(width, height);
+    }
+
+    /**
+     * Gets the variant of the tile at the given device size, rendering it the first time it is requested.
+     *
+     * @param destImageWidth  The width of the tile in device pixels.
+     * @param destImageHeight The height of the tile in device pixels.
+     * @return The variant of the tile at this size.
+     */
+    @Override
+    public synchronized Image getResolutionVariant(double destImageWidth, double destImageHeight) {
+        Dimension size = new Dimension(Math.max(1, (int) Math.ceil(destImageWidth - 1e-6)),
+                Math.max(1, (int) Math.ceil(destImageHeight - 1e-6)));
+        Image variant = variants.get(size);
+
+        if (variant == null) {
+            Image tile = renderer.apply(Math.max(size.width, size.height));
+            variant = TileScaler.getInstance().getScaledTile(tile, size.width, size.height, configuration);
+            variants.put(size, variant);
+        }
+
+        return variant;
+    }
+
+    /**
+     * Gets the variants of the tile rendered so far.
+     *
+     * @return The rendered variants, including at least the logical-size variant.
+     */
+    @Override
+    public synchronized List<Image> getResolutionVariants() {
+        if (variants.isEmpty()) getBaseImage();
+
+        return new ArrayList<>(variants.values());
+    }
+}
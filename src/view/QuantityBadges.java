@@ -0,0 +1,123 @@
+package view;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import util.AssetsUtil;
+
+/**
+ * Cache of the pre-rendered glyphs used to display the quantities of the pipe stock.
+ * A quantity is rendered once per cell size, and then simply copied over the pipe tile at paint time.
+ * It must only be used from the event dispatch thread.
+ *
+ * @author hamza-okutucu
+ */
+public class QuantityBadges {
+
+    /**
+     * The font size of the badges for a cell of {@link AssetsUtil#PIPE_SIZE} pixels.
+     */
+    private static final int FONT_SIZE = 20;
+
+    /**
+     * The distance between the baseline of the badges and the bottom of a cell of
+     * {@link AssetsUtil#PIPE_SIZE} pixels.
+     */
+    private static final int BOTTOM_MARGIN = 5;
+
+    /**
+     * The maximum number of glyphs kept in the cache.
+     */
+    private static final int MAX_GLYPHS = 64;
+
+    private static final Map<Long, Glyph> glyphs = new LinkedHashMap<Long, Glyph>(MAX_GLYPHS, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Glyph> eldest) {
+            return size() > MAX_GLYPHS;
+        }
+    };
+
+    /**
+     * A rendered quantity along with the ascent of its font.
+     */
+    private static class Glyph {
+        private BufferedImage image;
+        private int ascent;
+    }
+
+    /**
+     * Paints the badge of a quantity in the bottom left corner of a cell.
+     *
+     * @param g        The graphics context of the cell.
+     * @param quantity The quantity to display.
+     * @param cellSize The height of the cell in pixels.
+     */
+    public static void paintBadge(Graphics g, int quantity, int cellSize) {
+        if (cellSize <= 0) return;
+
+        Glyph glyph = getGlyph(quantity, cellSize);
+        int baseline = cellSize - BOTTOM_MARGIN * cellSize / AssetsUtil.PIPE_SIZE;
+
+        g.drawImage(glyph.image, 0, baseline - glyph.ascent, null);
+    }
+
+    /**
+     * Gets the glyph of a quantity for a cell size, rendering it the first time it is requested.
+     *
+     * @param quantity The quantity to display.
+     * @param cellSize The height of the cell in pixels.
+     * @return The rendered glyph.
+     */
+    private static Glyph getGlyph(int quantity, int cellSize) {
+        long key = ((long) cellSize << 32) | (quantity & 0xFFFFFFFFL);
+        Glyph glyph = glyphs.get(key);
+
+        if (glyph == null) {
+            glyph = renderGlyph(quantity, cellSize);
+            glyphs.put(key, glyph);
+        }
+
+        return glyph;
+    }
+
+    /**
+     * Renders the glyph of a quantity.
+     *
+     * @param quantity The quantity to display.
+     * @param cellSize The height of the cell in pixels.
+     * @return The rendered glyph.
+     */
+    private static Glyph renderGlyph(int quantity, int cellSize) {
+        Font font = new Font("Arial Black", Font.PLAIN, Math.max(1, FONT_SIZE * cellSize / AssetsUtil.PIPE_SIZE));
+        String text = Integer.toString(quantity);
+
+        Graphics2D measure = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        FontMetrics metrics = measure.getFontMetrics(font);
+        measure.dispose();
+
+        int width = Math.max(1, metrics.stringWidth(text));
+        int height = Math.max(1, metrics.getAscent() + metrics.getDescent());
+
+        Glyph glyph = new Glyph();
+        glyph.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        glyph.ascent = metrics.getAscent();
+        Graphics2D graphics = glyph.image.createGraphics();
+
+        graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        graphics.setColor(Color.WHITE);
+        graphics.setFont(font);
+        graphics.drawString(text, 0, metrics.getAscent());
+        graphics.dispose();
+
+        return glyph;
+    }
+}
@@ -0,0 +1,73 @@
+package view;
+
+import java.awt.Color;
+
+import model.BoardCell;
+import model.BoardElement;
+import model.PathComponent;
+import model.enumeration.BoardElementType;
+import model.enumeration.PathComponentColor;
+
+/**
+ * Provides the plain colors of the board elements, taken from the pipe sprites, for the views drawing
+ * the board without its tiles.
+ *
+ * @author hamza-okutucu
+ */
+public class TileColors {
+
+    /**
+     * The color of the borders of the board.
+     */
+    public static final Color BORDER = new Color(0x9f592e);
+
+    /**
+     * The color of the background of the cells.
+     */
+    public static final Color EMPTY_CELL = new Color(0x65240b);
+
+    private static final Color[] PATH_COMPONENT_COLORS = {
+        new Color(0xc1cecf),
+        new Color(0xdc0003),
+        new Color(0x00a314),
+        new Color(0x006cf6),
+        new Color(0xffba00),
+        new Color(0x4a4b49)
+    };
+
+    /**
+     * Gets the color in which the pipes of a path component color are drawn.
+     *
+     * @param color The color of a path component.
+     * @return The color of the pipes.
+     */
+    public static Color getColor(PathComponentColor color) {
+        return PATH_COMPONENT_COLORS[color.ordinal()];
+    }
+
+    /**
+     * Gets the color summing up a board element: the color of the first path component of its pipe carrying
+     * the water of a source, the color of its pipe if none does, or the background of the element if it holds
+     * no pipe.
+     *
+     * @param element The board element.
+     * @return The color of the element.
+     */
+    public static Color getElementColor(BoardElement element) {
+        if (!element.getBoardElementType().equals(BoardElementType.CELL)) return BORDER;
+
+        BoardCell cell = (BoardCell) element;
+        if (cell.isEmpty()) return EMPTY_CELL;
+
+        PathComponentColor color = PathComponentColor.GRAY;
+
+        for (PathComponent pathComponent : cell.getPipe().getPathComponents()) {
+            if (pathComponent.getColor() != PathComponentColor.GRAY) {
+                color = pathComponent.getColor();
+                break;
+            }
+        }
+
+        return getColor(color);
+    }
+}
@@ -0,0 +1,302 @@
+package view;
+
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Window;
+import java.awt.geom.AffineTransform;
+
+import javax.swing.SwingUtilities;
+
+import model.BoardBorder;
+import model.BoardCell;
+import model.BoardElement;
+import model.Pipe;
+import util.AssetsUtil;
+import util.PipeAtlas;
+import util.TileCache;
+
+/**
+ * Maps the state of the board elements and pipes of the model to their images.
+ * The images are rendered on demand from the tiles of the {@link util.PipeAtlas} and shared through
+ * the {@link TileCache}, keyed by the visual state of the element and the size of the image, both encoded
+ * as primitive keys so that looking a tile up allocates nothing, and the model itself holds no image at all.
+ * On scaled displays, the tiles are {@link MultiResolutionTile}s holding a variant per device resolution.
+ * The tiles rendered while an atlas is still loading are discarded and the windows repainted once it is ready.
+ *
+ * @author hamza-okutucu
+ */
+public class TileRenderer {
+
+    private static final int CELL_KIND = 0;
+    private static final int BORDER_KIND = 1;
+    private static final int PIPE_KIND = 2;
+
+    /**
+     * The number of bits of each dimension of a size key, enough for the device size of the largest cells.
+     */
+    private static final int DIMENSION_BITS = 12;
+
+    /**
+     * The number of bits of each scale of a size key, in hundredths.
+     */
+    private static final int SCALE_BITS = 10;
+
+    static {
+        PipeAtlas.addLoadListener(() -> SwingUtilities.invokeLater(TileRenderer::refreshTiles));
+    }
+
+    /**
+     * Gets the image of a board element rendered at the given size.
+     *
+     * @param element The board element to render.
+     * @param size    The width and height of the image.
+     * @return The image of the board element, or null if the element cannot be rendered.
+     */
+    public static Image getImage(BoardElement element, int size) {
+        if (element instanceof BoardCell) {
+            return getImage((BoardCell) element, size);
+        } else if (element instanceof BoardBorder) {
+            return getImage((BoardBorder) element, size);
+        }
+
+        handleInvalidType("Le type d'element n'existe pas : " + element.getBoardElementType());
+        return null;
+    }
+
+    /**
+     * Gets the tile displaying a board element in a cell of the given logical size.
+     * On an unscaled display, the tile is rendered and scaled to the size of the cell. On a scaled display,
+     * the tile is a {@link MultiResolutionTile} whose variants are rendered at the device size of the cell,
+     * once per element state, cell size and scale.
+     *
+     * @param element       The board element to render.
+     * @param width         The logical width of the cell.
+     * @param height        The logical height of the cell.
+     * @param configuration The graphics configuration of the destination, or null if unknown.
+     * @return The tile of the board element, or null if the cell is empty.
+     */
+    public static Image getTile(BoardElement element, int width, int height, GraphicsConfiguration configuration) {
+        if (width <= 0 || height <= 0) return null;
+
+        AffineTransform transform = configuration != null ? configuration.getDefaultTransform() : new AffineTransform();
+
+        if (transform.getScaleX() == 1 && transform.getScaleY() == 1) {
+            Image tile = getImage(element, Math.max(width, height));
+            return TileScaler.getInstance().getScaledTile(tile, width, height, configuration);
+        }
+
+        long sizeKey = getSizeKey(width, height, transform.getScaleX(), transform.getScaleY());
+
+        return TileCache.getInstance().get(sizeKey, getKey(element), () -> {
+            BoardElement state = element.deepCopy();
+            return new MultiResolutionTile(width, height, size -> getImage(state, size), configuration);
+        });
+    }
+
+    /**
+     * Gets the image of a cell rendered at the given size.
+     * The image is shared with every cell having the same pipe and attachment status.
+     *
+     * @param cell The cell to render.
+     * @param size The width and height of the image.
+     * @return The image of the cell.
+     */
+    public static Image getImage(BoardCell cell, int size) {
+        return TileCache.getInstance().get(getSizeKey(size, size, 0, 0), getKey(cell), () -> renderCell(cell, size));
+    }
+
+    /**
+     * Gets the image of a border rendered at the given size.
+     * The image is shared with every border having the same type and rotations.
+     *
+     * @param border The border to render.
+     * @param size   The width and height of the image.
+     * @return The image of the border.
+     */
+    public static Image getImage(BoardBorder border, int size) {
+        return TileCache.getInstance().get(getSizeKey(size, size, 0, 0), getKey(border), () -> renderBorder(border, size));
+    }
+
+    /**
+     * Gets the image of a pipe rendered at the given size.
+     * The image is shared with every pipe having the same type, rotations and colors.
+     *
+     * @param pipe The pipe to render.
+     * @param size The width and height of the image.
+     * @return The image of the pipe.
+     */
+    public static Image getImage(Pipe pipe, int size) {
+        return TileCache.getInstance().get(getSizeKey(size, size, 0, 0), getKey(pipe), () -> renderPipe(pipe, size));
+    }
+
+    /**
+     * Builds the key identifying the size of an image in the tile cache.
+     * The scales are those of the display a multi-resolution tile is rendered for, or 0 for a plain image.
+     *
+     * @param width  The width of the image.
+     * @param height The height of the image.
+     * @param scaleX The horizontal scale of the display.
+     * @param scaleY The vertical scale of the display.
+     * @return The key of the size, packing the dimensions and the scales in hundredths.
+     */
+    private static long getSizeKey(int width, int height, double scaleX, double scaleY) {
+        long dimensionMask = (1L << DIMENSION_BITS) - 1;
+        long scaleMask = (1L << SCALE_BITS) - 1;
+
+        return (width & dimensionMask)
+                | (height & dimensionMask) << DIMENSION_BITS
+                | (Math.round(scaleX * 100) & scaleMask) << 2 * DIMENSION_BITS
+                | (Math.round(scaleY * 100) & scaleMask) << 2 * DIMENSION_BITS + SCALE_BITS;
+    }
+
+    /**
+     * Builds the key identifying the image of a board element in the tile cache.
+     *
+     * @param element The board element.
+     * @return The key packing the visual state of the element.
+     */
+    private static long getKey(BoardElement element) {
+        if (element instanceof BoardCell) {
+            BoardCell cell = (BoardCell) element;
+            return (getKey(cell.getPipe()) & ~3L | CELL_KIND) | (cell.isAttached() ? 1L << 7 : 0);
+        }
+
+        BoardBorder border = (BoardBorder) element;
+        return BORDER_KIND | border.getBorderType().ordinal() << 2 | Math.floorMod(border.getRotations(), 4) << 5;
+    }
+
+    /**
+     * Builds the key identifying the image of a pipe in the tile cache.
+     * The key packs the kind of image in bits 0-1, the type in bits 2-4, the rotations in bits 5-6,
+     * the attachment of a cell in bit 7 and the color of each path component, plus one, in bits 8-10 and 11-13.
+     *
+     * @param pipe The pipe.
+     * @return The key packing the type, rotations and colors of the pipe.
+     */
+    private static long getKey(Pipe pipe) {
+        long key = PIPE_KIND | pipe.getType().ordinal() << 2 | Math.floorMod(pipe.getRotations(), 4) << 5;
+        int pathComponentCount = pipe.getPathComponentCount();
+
+        for (int index = 0; index < pathComponentCount; index++) {
+            key |= (long) (pipe.getPathComponentAt(index).getColor().ordinal() + 1) << 8 + 3 * index;
+        }
+
+        return key;
+    }
+
+    /**
+     * Renders the image of a cell based on its pipe type and attachment status.
+     *
+     * @param cell The cell to render.
+     * @param size The width and height of the image.
+     * @return The rendered image of the cell.
+     */
+    private static Image renderCell(BoardCell cell, int size) {
+        Pipe pipe = cell.getPipe();
+        Image emptyImage = AssetsUtil.extractPipeImage(6, 0, size);
+
+        if (cell.isAttached()) {
+            Image screwsImage = AssetsUtil.extractPipeImage(6, 5, size);
+            emptyImage = AssetsUtil.combineImages(emptyImage, screwsImage);
+        }
+
+        switch (pipe.getType()) {
+            case LINE:
+            case FORK:
+            case CROSS:
+            case TURN:
+            case OVER:
+                return AssetsUtil.combineImages(emptyImage, getImage(pipe, size));
+            case SOURCE:
+                Image borderImage = AssetsUtil.extractPipeImage(6, 4, size, pipe.getRotations() + 2);
+                return AssetsUtil.combineImages(borderImage, getImage(pipe, size));
+            case EMPTY:
+                return emptyImage;
+            default:
+                handleInvalidType("Le type de tuyau n'existe pas : " + pipe.getType());
+        }
+
+        return null;
+    }
+
+    /**
+     * Renders the image of a border based on its type and rotations.
+     *
+     * @param border The border to render.
+     * @param size   The width and height of the image.
+     * @return The rendered image of the border.
+     */
+    private static Image renderBorder(BoardBorder border, int size) {
+        switch (border.getBorderType()) {
+            case CORNER:
+                return AssetsUtil.extractPipeImage(6, 3, size, border.getRotations());
+            case SIDE:
+                return AssetsUtil.extractPipeImage(6, 4, size, border.getRotations());
+            default:
+                handleInvalidType("Le type de bordure n'existe pas : " + border.getBorderType());
+        }
+
+        return null;
+    }
+
+    /**
+     * Renders the image of a pipe based on its type, rotations and path components.
+     * The tile column of a pipe is the ordinal of its type, and the tile line is the ordinal of its color.
+     * An over pipe combines the vertical line of its first component with the horizontal line of its second one.
+     *
+     * @param pipe The pipe to render.
+     * @param size The width and height of the image.
+     * @return The rendered image of the pipe.
+     */
+    private static Image renderPipe(Pipe pipe, int size) {
+        int rotations = pipe.getRotations();
+
+        switch (pipe.getType()) {
+            case LINE:
+            case FORK:
+            case CROSS:
+            case TURN:
+            case SOURCE:
+                int colorLine = pipe.getPathComponentAt(0).getColor().ordinal();
+                return AssetsUtil.extractPipeImage(colorLine, pipe.getType().ordinal(), size, rotations);
+            case OVER:
+                int verticalColorLine = pipe.getPathComponentAt(0).getColor().ordinal();
+                int horizontalColorLine = pipe.getPathComponentAt(1).getColor().ordinal();
+                Image verticalLineImage = AssetsUtil.extractPipeImage(verticalColorLine, 1, size, rotations);
+                Image horizontalLineImage = AssetsUtil.extractPipeImage(horizontalColorLine, 2, size, rotations);
+                return AssetsUtil.combineImages(verticalLineImage, horizontalLineImage);
+            case EMPTY:
+                return AssetsUtil.extractPipeImage(6, 0, size);
+            default:
+                handleInvalidType("Le type de tuyau n'existe pas : " + pipe.getType());
+        }
+
+        return null;
+    }
+
+    /**
+     * Discards every rendered tile and repaints the windows, so that the tiles are rendered again from the
+     * atlases loaded since then.
+     */
+    private static void refreshTiles() {
+        TileCache.getInstance().clear();
+        TileScaler.getInstance().clear();
+
+        for (Window window : Window.getWindows()) {
+            window.repaint();
+        }
+    }
+
+    /**
+     * Handles a type that cannot be rendered by throwing an exception.
+     *
+     * @param message The message describing the invalid type.
+     */
+    private static void handleInvalidType(String message) {
+        try {
+            throw new Exception(message);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package view;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * Produces tiles already scaled to the size at which they are displayed, so that painting a cell is a
+ * plain 1:1 copy instead of a resampling of the 120px source tile.
+ * The tiles are always copied into an image compatible with the graphics configuration of the destination,
+ * even when they already have the display size, so that painting them never converts their pixel format.
+ * Scaled tiles are kept per display size and configuration, and are only regenerated when they change,
+ * typically when the window is resized or moved to another screen. Source tiles are referenced weakly, so that tiles which are no longer
+ * displayed can be collected along with their scaled versions.
+ * The scaler may be used from any thread: the scaled tiles are looked up and published under the lock of the
+ * scaler, and the scaling itself happens outside of it.
+ *
+ * @author hamza-okutucu
+ */
+public class TileScaler {
+
+    /**
+     * The maximum number of display sizes kept at the same time.
+     */
+    private static final int MAX_SIZES = 4;
+
+    private static TileScaler instance;
+
+    private Map<DisplaySize, Map<Image, Image>> scaledTilesBySize;
+
+    /**
+     * The size at which tiles are displayed, along with the graphics configuration of the destination.
+     */
+    private static final class DisplaySize {
+
+        private final Dimension size;
+        private final GraphicsConfiguration configuration;
+
+        /**
+         * Initializes a display size.
+         *
+         * @param width         The display width of the tiles.
+         * @param height        The display height of the tiles.
+         * @param configuration The graphics configuration of the destination, or null if unknown.
+         */
+        DisplaySize(int width, int height, GraphicsConfiguration configuration) {
+            this.size = new Dimension(width, height);
+            this.configuration = configuration;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof DisplaySize)) return false;
+
+            DisplaySize other = (DisplaySize) object;
+            return size.equals(other.size) && Objects.equals(configuration, other.configuration);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(size, configuration);
+        }
+    }
+
+    /**
+     * Initializes an empty tile scaler.
+     */
+    private TileScaler() {
+        scaledTilesBySize = new LinkedHashMap<>();
+    }
+
+    /**
+     * Gets the tile scaler shared by the views.
+     *
+     * @return The shared tile scaler.
+     */
+    public static synchronized TileScaler getInstance() {
+        if (instance == null) {
+            instance = new TileScaler();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets a tile scaled to the given size, in a format compatible with the given graphics configuration.
+     *
+     * @param tile          The source tile.
+     * @param width         The display width of the tile.
+     * @param height        The display height of the tile.
+     * @param configuration The graphics configuration of the destination, or null if unknown.
+     * @return The scaled tile, which is a compatible copy of the source tile if it already has the requested size.
+     */
+    public Image getScaledTile(Image tile, int width, int height, GraphicsConfiguration configuration) {
+        if (tile == null || width <= 0 || height <= 0) return tile;
+
+        DisplaySize size = new DisplaySize(width, height, configuration);
+
+        synchronized (this) {
+            Image scaledTile = getScaledTiles(size).get(tile);
+            if (scaledTile != null) return scaledTile;
+        }
+
+        Image scaledTile = scaleTile(tile, width, height, configuration);
+
+        synchronized (this) {
+            Image publishedTile = getScaledTiles(size).putIfAbsent(tile, scaledTile);
+            return publishedTile != null ? publishedTile : scaledTile;
+        }
+    }
+
+    /**
+     * Gets the scaled tiles of a display size and configuration, discarding the least recently used sizes when too
+     * many sizes are kept.
+     *
+     * @param size The display size and configuration.
+     * @return The map from source tiles to their scaled versions at this size.
+     */
+    private Map<Image, Image> getScaledTiles(DisplaySize size) {
+        Map<Image, Image> scaledTiles = scaledTilesBySize.remove(size);
+
+        if (scaledTiles == null) {
+            scaledTiles = new WeakHashMap<>();
+        }
+
+        scaledTilesBySize.put(size, scaledTiles);
+
+        Iterator<DisplaySize> sizes = scaledTilesBySize.keySet().iterator();
+        while (scaledTilesBySize.size() > MAX_SIZES) {
+            sizes.next();
+            sizes.remove();
+        }
+
+        return scaledTiles;
+    }
+
+    /**
+     * Scales a tile into a new translucent image compatible with the destination.
+     * A tile which already has the requested size is copied as is, without resampling.
+     *
+     * @param tile          The source tile.
+     * @param width         The width of the scaled tile.
+     * @param height        The height of the scaled tile.
+     * @param configuration The graphics configuration of the destination, or null if unknown.
+     * @return The scaled tile.
+     */
+    private Image scaleTile(Image tile, int width, int height, GraphicsConfiguration configuration) {
+        BufferedImage scaledTile = configuration != null
+                ? configuration.createCompatibleImage(width, height, Transparency.TRANSLUCENT)
+                : new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = scaledTile.createGraphics();
+
+        if (tile.getWidth(null) == width && tile.getHeight(null) == height) {
+            graphics.drawImage(tile, 0, 0, null);
+        } else {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(tile, 0, 0, width, height, null);
+        }
+        graphics.dispose();
+
+        return scaledTile;
+    }
+
+    /**
+     * Discards every scaled tile, for instance after the display configuration changed.
+     */
+    public synchronized void clear() {
+        scaledTilesBySize.clear();
+    }
+}